@@ -0,0 +1,176 @@
+package com.flippingmasterminds;
+
+import java.util.Arrays;
+
+/**
+ * The trading metrics behind the Sort By dropdown, computed from the aligned
+ * columns of a {@link MarketSnapshot}.
+ *
+ * <ul>
+ *   <li>VWAP change: current price against the window's volume-weighted
+ *       average price, in %.</li>
+ *   <li>Volatility: standard deviation of the 5m returns inside the window,
+ *       in %; only known for windows served from the /5m series.</li>
+ *   <li>Margin: latest instant-buy minus instant-sell price.</li>
+ *   <li>Spread: the same difference as a % of the mid price.</li>
+ *   <li>ROI after tax: the margin left after the GE tax on the sale, as a
+ *       % of the buy price.</li>
+ * </ul>
+ *
+ * A metric that cannot be computed for an item is {@link Double#NaN}.
+ */
+final class Analytics
+{
+    /** GE tax on the seller, in percent of the sale price, rounded down. */
+    static final int  GE_TAX_PERCENT = 2;
+    /** The tax is capped per item sold. */
+    static final long GE_TAX_CAP     = 5_000_000;
+
+    private Analytics() { }
+
+    /** Tax the GE takes from selling one item at {@code price}. */
+    static long geTax(long price)
+    {
+        return Math.min(price * GE_TAX_PERCENT / 100, GE_TAX_CAP);
+    }
+
+    /** Profit per item when buying at {@code low} and selling at {@code high}, after tax. */
+    static long marginAfterTax(long high, long low)
+    {
+        return high - geTax(high) - low;
+    }
+
+    static double vwapChange(long curPrice, long vwap)
+    {
+        if (curPrice <= 0 || vwap <= 0) return Double.NaN;
+        return ((double) (curPrice - vwap) / vwap) * 100.0;
+    }
+
+    static double volatility(long basisPoints)
+    {
+        return basisPoints > 0 ? basisPoints / 100.0 : Double.NaN;
+    }
+
+    static double margin(long margin)
+    {
+        return margin != MarketSnapshot.NO_MARGIN ? margin : Double.NaN;
+    }
+
+    /** Relative bid-ask spread: high minus low as a % of their mid. */
+    static double spread(long high, long low)
+    {
+        if (high <= 0 || low <= 0) return Double.NaN;
+        return ((double) (high - low) / ((high + low) / 2.0)) * 100.0;
+    }
+
+    static double roi(long high, long low)
+    {
+        if (high <= 0 || low <= 0) return Double.NaN;
+        return ((double) marginAfterTax(high, low) / low) * 100.0;
+    }
+
+    /** One metric for every item of {@code snapshot}, aligned to its ids. */
+    static double[] column(SortMetric metric, MarketSnapshot snapshot, TimeWindow window)
+    {
+        int      n   = snapshot.size();
+        double[] out = new double[n];
+        long[]   cur = snapshot.currentPrices();
+        switch (metric)
+        {
+            case VWAP_CHANGE:
+            {
+                long[] vwaps = snapshot.vwaps(window);
+                for (int i = 0; i < n; i++) out[i] = vwapChange(cur[i], vwaps[i]);
+                break;
+            }
+            case VOLATILITY:
+            {
+                long[] vol = snapshot.volatilities(window);
+                for (int i = 0; i < n; i++) out[i] = volatility(vol[i]);
+                break;
+            }
+            case MARGIN:
+            {
+                long[] margins = snapshot.margins();
+                for (int i = 0; i < n; i++) out[i] = margin(margins[i]);
+                break;
+            }
+            case SPREAD:
+            {
+                long[] highs = snapshot.highs();
+                long[] lows  = snapshot.lows();
+                for (int i = 0; i < n; i++) out[i] = spread(highs[i], lows[i]);
+                break;
+            }
+            case ROI:
+            {
+                long[] highs = snapshot.highs();
+                long[] lows  = snapshot.lows();
+                for (int i = 0; i < n; i++) out[i] = roi(highs[i], lows[i]);
+                break;
+            }
+            default:
+                Arrays.fill(out, Double.NaN);
+                break;
+        }
+        return out;
+    }
+
+    /** VWAP of one average bucket from the average price and trade count of each side; 0 if nothing traded. */
+    static long vwap(long avgHigh, int highVolume, long avgLow, int lowVolume)
+    {
+        long hv = avgHigh > 0 ? highVolume : 0;
+        long lv = avgLow  > 0 ? lowVolume  : 0;
+        if (hv + lv == 0) return 0;
+        return Math.round(((double) avgHigh * hv + (double) avgLow * lv) / (hv + lv));
+    }
+
+    /**
+     * Volume-weighted average of one item's bucket prices; buckets without a
+     * price or without trades carry no weight. Returns 0 if nothing traded.
+     */
+    static long vwap(long[] prices, int[] volumes, int[] at, int count)
+    {
+        double notional = 0;
+        long   volume   = 0;
+        for (int k = 0; k < count; k++)
+        {
+            long p = prices[at[k]];
+            int  v = volumes[at[k]];
+            if (p <= 0 || v <= 0) continue;
+            notional += (double) p * v;
+            volume   += v;
+        }
+        return volume > 0 ? Math.round(notional / volume) : 0;
+    }
+
+    /**
+     * Standard deviation of the log returns between consecutive priced
+     * buckets, in basis points. Returns 0 when fewer than two returns exist.
+     */
+    static int volatilityBasisPoints(long[] prices, int[] at, int count)
+    {
+        long   prev  = 0;
+        int    n     = 0;
+        double mean  = 0;
+        double m2    = 0;
+        for (int k = 0; k < count; k++)
+        {
+            long p = prices[at[k]];
+            if (p <= 0) continue;
+            if (prev > 0)
+            {
+                // Welford's running variance
+                double r     = Math.log((double) p / prev);
+                double delta = r - mean;
+                n++;
+                mean += delta / n;
+                m2   += delta * (r - mean);
+            }
+            prev = p;
+        }
+        if (n < 2) return 0;
+        long bp = Math.round(Math.sqrt(m2 / (n - 1)) * 10_000);
+        return (int) Math.max(1, Math.min(bp, Integer.MAX_VALUE));
+    }
+}
@@ -13,6 +13,11 @@ public class BuyLimitTracker
     private final ConfigManager configManager;
     private final Map<Integer, BuyRecord> records = new HashMap<>();
 
+    // Bumped whenever a record is added, grows or expires
+    private long version = 0;
+    // Earliest time any current record expires
+    private long nextExpiry = Long.MAX_VALUE;
+
     public BuyLimitTracker(ConfigManager configManager)
     {
         this.configManager = configManager;
@@ -37,6 +42,8 @@ public class BuyLimitTracker
             record.addQuantity(quantity);
         }
 
+        version++;
+        nextExpiry = Math.min(nextExpiry, record.getFirstBuyTimestamp() + FOUR_HOURS_MS);
         save();
     }
 
@@ -67,6 +74,20 @@ public class BuyLimitTracker
         return 0;
     }
 
+    /**
+     * Returns a counter that changes whenever the tracked data does, including
+     * when a record expires. Two equal values mean {@link #getAllTracked()}
+     * would return the same data, so callers can skip building it.
+     */
+    public synchronized long version()
+    {
+        if (System.currentTimeMillis() > nextExpiry)
+        {
+            removeExpired();
+        }
+        return version;
+    }
+
     /**
      * Returns a map of all non-expired tracked items and their buy data.
      * Automatically removes expired records to prevent memory leaks.
@@ -101,12 +122,33 @@ public class BuyLimitTracker
 
         if (removedAny)
         {
+            version++;
+            updateNextExpiry();
             save();
         }
 
         return trackedData;
     }
 
+    private void removeExpired()
+    {
+        if (records.values().removeIf(BuyRecord::isExpired))
+        {
+            version++;
+            save();
+        }
+        updateNextExpiry();
+    }
+
+    private void updateNextExpiry()
+    {
+        nextExpiry = Long.MAX_VALUE;
+        for (BuyRecord record : records.values())
+        {
+            nextExpiry = Math.min(nextExpiry, record.getFirstBuyTimestamp() + FOUR_HOURS_MS);
+        }
+    }
+
     /**
      * Load records from config if you want persistence between sessions.
      * For now, this is a no-op placeholder.
@@ -0,0 +1,234 @@
+package com.flippingmasterminds;
+
+import javax.swing.SwingUtilities;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Runs the panel's filter pass on a background thread.
+ *
+ * Every {@link #submit} supersedes whatever came before it: a pending run
+ * that has not started yet is cancelled, and a run already in progress
+ * notices the newer generation and abandons its scan. Only the result of the
+ * latest query is handed back to the EDT, so typing into a filter field
+ * costs one scan after the user pauses rather than one per keystroke.
+ */
+public class FilterEngine
+{
+    /** How often (in items) a running scan checks whether it has been superseded. */
+    private static final int CANCEL_CHECK_MASK = 0xFF;
+
+    private final ScheduledExecutorService worker;
+    private final AtomicLong generation = new AtomicLong();
+    private final Consumer<RankedResult> onResult;
+
+    private ScheduledFuture<?> pending;
+
+    /** @param onResult receives each surviving result on the EDT */
+    public FilterEngine(Consumer<RankedResult> onResult)
+    {
+        this.onResult = onResult;
+        this.worker   = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fmm-filter");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Schedules {@code query} to run after {@code delayMs}, superseding any
+     * earlier query. Pass a delay of 0 for discrete changes such as dropdown
+     * selections and a short debounce for keystrokes.
+     */
+    public synchronized void submit(Query query, long delayMs)
+    {
+        long gen = generation.incrementAndGet();
+        if (pending != null) pending.cancel(false);
+        pending = worker.schedule(() -> run(query, gen), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown()
+    {
+        generation.incrementAndGet();
+        worker.shutdownNow();
+    }
+
+    private void run(Query query, long gen)
+    {
+        RankedResult result = compute(query, gen);
+        if (result == null) return; // superseded mid-scan
+
+        SwingUtilities.invokeLater(() -> {
+            if (generation.get() == gen) onResult.accept(result);
+        });
+    }
+
+    /**
+     * Produces the matching snapshot positions in display order, or
+     * {@code null} if superseded.
+     *
+     * The display order is the performance segment of the window's ranking,
+     * or for any other sort the metric's ordering restricted to that segment.
+     * The price, volume and margin range indexes (and, when sorting by a
+     * metric, the segment itself) bound how many items can pass. If the narrowest bound
+     * is smaller than the display ordering, only that slice of candidates is
+     * visited and their ranks are sorted back into display order; otherwise
+     * the ready ordering is walked directly. Either way the work is
+     * proportional to the smallest candidate set rather than to every item.
+     */
+    RankedResult compute(Query q, long gen)
+    {
+        MarketSnapshot snapshot = q.snapshot;
+        RankingIndex   ranking  = snapshot.ranking(q.window);
+        RangeIndex     priceIdx = snapshot.priceIndex();
+        RangeIndex     volIdx   = snapshot.volumeIndex(q.window);
+        RangeIndex     mrgIdx   = snapshot.marginIndex();
+        MetricIndex    metric   = q.sortBy == SortMetric.CHANGE ? null : snapshot.metricIndex(q.sortBy, q.window);
+
+        // Filter on current (baseline) price, NOT the historical snapshot price.
+        // This keeps the item list consistent when switching time ranges —
+        // only the % change column varies, never which items are shown.
+        int priceFrom = priceIdx.lowerBound(q.minPrice);
+        int priceTo   = priceIdx.upperBound(q.maxPrice);
+        int volFrom   = volIdx.lowerBound(q.minVolume);
+        int volTo     = snapshot.size();
+        int mrgFrom   = mrgIdx.lowerBound(q.minMargin);
+        int mrgTo     = snapshot.size();
+
+        int segFrom = ranking.segmentStart(q.topPerformers);
+        int segTo   = ranking.segmentEnd(q.topPerformers);
+
+        // The ordering results are read from
+        IntUnaryOperator positionAt = metric != null ? metric::positionAt : ranking::positionAt;
+        IntUnaryOperator rankOf     = metric != null ? metric::rankOf     : ranking::rankOf;
+        int     dispFrom = metric != null ? 0             : segFrom;
+        int     dispTo   = metric != null ? metric.size() : segTo;
+        boolean reversed = metric != null && q.sortBy.followsSegment() && !q.topPerformers;
+
+        int priceCount = priceTo - priceFrom;
+        int volCount   = volTo - volFrom;
+        int mrgCount   = mrgTo - mrgFrom;
+        int segCount   = metric != null ? segTo - segFrom : Integer.MAX_VALUE;
+        int dispCount  = dispTo - dispFrom;
+
+        int[] positions;
+        int   count = 0;
+
+        int narrowest = Math.min(Math.min(priceCount, volCount), Math.min(mrgCount, segCount));
+        if (narrowest < dispCount)
+        {
+            // Visit only the narrowest slice, keeping each candidate's rank
+            IntUnaryOperator driver;
+            int              from;
+            int              to;
+            if (narrowest == priceCount)
+            {
+                driver = priceIdx::position;   from = priceFrom; to = priceTo;
+            }
+            else if (narrowest == volCount)
+            {
+                driver = volIdx::position;     from = volFrom;   to = volTo;
+            }
+            else if (narrowest == mrgCount)
+            {
+                driver = mrgIdx::position;     from = mrgFrom;   to = mrgTo;
+            }
+            else
+            {
+                driver = ranking::positionAt;  from = segFrom;   to = segTo;
+            }
+
+            int[] ranks = new int[to - from];
+            for (int i = from; i < to; i++)
+            {
+                if (((i - from) & CANCEL_CHECK_MASK) == 0 && generation.get() != gen) return null;
+
+                int pos = driver.applyAsInt(i);
+                int r   = rankOf.applyAsInt(pos);
+                if (r < dispFrom || r >= dispTo) continue;
+                if (metric != null && !inSegment(ranking, pos, segFrom, segTo)) continue;
+                if (!passes(q, snapshot, pos)) continue;
+                ranks[count++] = r;
+            }
+
+            Arrays.sort(ranks, 0, count);
+            positions = new int[count];
+            for (int i = 0; i < count; i++)
+            {
+                positions[reversed ? count - 1 - i : i] = positionAt.applyAsInt(ranks[i]);
+            }
+        }
+        else
+        {
+            // Filters are wide open relative to the ordering; walk it
+            positions = new int[dispCount];
+            for (int k = 0; k < dispCount; k++)
+            {
+                if ((k & CANCEL_CHECK_MASK) == 0 && generation.get() != gen) return null;
+
+                int pos = positionAt.applyAsInt(reversed ? dispTo - 1 - k : dispFrom + k);
+                if (metric != null && !inSegment(ranking, pos, segFrom, segTo)) continue;
+                if (passes(q, snapshot, pos)) positions[count++] = pos;
+            }
+        }
+
+        if (generation.get() != gen) return null;
+        return new RankedResult(snapshot, q.meta, q.window, positions, count);
+    }
+
+    private static boolean inSegment(RankingIndex ranking, int pos, int segFrom, int segTo)
+    {
+        int r = ranking.rankOf(pos);
+        return r >= segFrom && r < segTo;
+    }
+
+    /** Checks one candidate against every filter (a range index only covers one). */
+    private static boolean passes(Query q, MarketSnapshot snapshot, int pos)
+    {
+        long curPrice = snapshot.currentPrices()[pos];
+        if (curPrice < q.minPrice || curPrice > q.maxPrice) return false;
+        if (snapshot.volumes(q.window)[pos] < q.minVolume) return false;
+        if (snapshot.margins()[pos] < q.minMargin) return false;
+
+        // Once the item dump is in, items it doesn't know are hidden
+        return q.meta == null || q.meta.containsKey(snapshot.ids()[pos]);
+    }
+
+    // ── Query ─────────────────────────────────────────────────────────────────
+
+    /** Immutable capture of the data and filter fields, taken on the EDT. */
+    public static final class Query
+    {
+        final MarketSnapshot snapshot;
+        final Map<Integer, FlippingMastermindsPlugin.ItemMeta> meta;
+        final TimeWindow window;
+        final boolean    topPerformers;
+        final SortMetric sortBy;
+        final long       minPrice;
+        final long       maxPrice;
+        final long       minVolume;
+        final long       minMargin;
+
+        Query(MarketSnapshot snapshot, Map<Integer, FlippingMastermindsPlugin.ItemMeta> meta,
+              TimeWindow window, boolean topPerformers, SortMetric sortBy,
+              long minPrice, long maxPrice, long minVolume, long minMargin)
+        {
+            this.snapshot      = snapshot;
+            this.meta          = meta;
+            this.window        = window;
+            this.topPerformers = topPerformers;
+            this.sortBy        = sortBy;
+            this.minPrice      = minPrice;
+            this.maxPrice      = maxPrice;
+            this.minVolume     = minVolume;
+            this.minMargin     = minMargin;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.flippingmasterminds;
+
+import java.util.Arrays;
+
+/**
+ * Rolling 24 hours of /5m buckets, the source of the Day window and of any
+ * custom window up to 24 hours long.
+ *
+ * Each item owns a ring of {@link #BUCKETS} slots and a bucket always lands
+ * in slot {@code (timestamp / 300) % BUCKETS}, so appending the newest bucket
+ * overwrites the one that just left the window and nothing is ever shifted.
+ * The timestamp held by each slot is shared by all items, which lets
+ * {@link #missing} and {@link #toColumn} ignore slots left over from before a
+ * gap. Rings are stored back to back in flat primitive arrays indexed by
+ * {@code row * BUCKETS + slot}.
+ *
+ * A bucket that comes back empty is only taken as final once it is older
+ * than {@link #PUBLICATION_DELAY}; before that the API may simply not have
+ * published it yet, so it stays {@link #missing} and is fetched again.
+ *
+ * All methods are synchronized; buckets are appended from the fetch pool.
+ */
+public class FiveMinuteSeries
+{
+    static final int  BUCKETS = 288;   // 24h / 5m
+    static final long STEP    = 300;   // seconds per bucket
+
+    /** How long after a bucket closes an empty response for it is believed (seconds). */
+    static final long PUBLICATION_DELAY = 10 * 60;
+
+    private final long[] stamps = new long[BUCKETS];
+
+    private int[]  rowOfId = new int[0];           // item id -> row, or -1
+    private int[]  idOfRow = new int[256];
+    private long[] prices  = new long[256 * BUCKETS];
+    private int[]  volumes = new int[256 * BUCKETS];
+    private int    rows    = 0;
+
+    public FiveMinuteSeries()
+    {
+        Arrays.fill(stamps, -1);
+    }
+
+    /** Start of the newest bucket that has closed at {@code now} (epoch seconds). */
+    static long latestClosedBucket(long now)
+    {
+        return now - now % STEP - STEP;
+    }
+
+    /**
+     * Timestamps in the 24h window ending at {@code latest} that are not held,
+     * oldest first (the oldest bucket is the Day reference price), then
+     * newest to oldest.
+     */
+    public synchronized long[] missing(long latest)
+    {
+        long   oldest = latest - (BUCKETS - 1) * STEP;
+        long[] out    = new long[BUCKETS];
+        int    n      = 0;
+
+        if (stamps[slotOf(oldest)] != oldest) out[n++] = oldest;
+        for (long ts = latest; ts > oldest; ts -= STEP)
+        {
+            if (stamps[slotOf(ts)] != ts) out[n++] = ts;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Whether every bucket of the {@code span} seconds ending at
+     * {@code latest} is held, so {@link #toColumn} describes the whole window
+     * rather than the part back-filled so far.
+     */
+    public synchronized boolean covers(long latest, long span)
+    {
+        long buckets = Math.max(1, Math.min(BUCKETS, span / STEP));
+        for (long ts = latest - (buckets - 1) * STEP; ts <= latest; ts += STEP)
+        {
+            if (stamps[slotOf(ts)] != ts) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stores one /5m bucket fetched at {@code now}, replacing whatever its
+     * slot held before. Returns {@code false}, leaving the bucket missing, if
+     * it is empty but may still be published, or if a newer bucket already
+     * owns the slot.
+     */
+    public synchronized boolean append(long timestamp, PriceColumn bucket, long now)
+    {
+        if (bucket.size() == 0 && now < timestamp + STEP + PUBLICATION_DELAY) return false;
+
+        int slot = slotOf(timestamp);
+        if (stamps[slot] > timestamp) return false;
+
+        stamps[slot] = timestamp;
+        for (int r = 0; r < rows; r++)
+        {
+            prices [r * BUCKETS + slot] = 0;
+            volumes[r * BUCKETS + slot] = 0;
+        }
+
+        for (int i = 0; i < bucket.size(); i++)
+        {
+            int at = rowFor(bucket.ids[i]) * BUCKETS + slot;
+            prices [at] = bucket.prices[i];
+            volumes[at] = (int) Math.min(bucket.volumes[i], Integer.MAX_VALUE);
+        }
+        return true;
+    }
+
+    /**
+     * A window of {@code span} seconds ending at {@code latest} as a column:
+     * each item's price is the earliest price it traded at within the window
+     * (the bucket {@code span} ago when it traded then), and its volume is the
+     * total over those buckets. The column also carries each item's VWAP and
+     * the volatility of its 5m returns over the window (see {@link Analytics}).
+     * Spans beyond 24 hours are clamped.
+     */
+    public synchronized PriceColumn toColumn(long latest, long span)
+    {
+        long  buckets = Math.max(1, Math.min(BUCKETS, span / STEP));
+        long  oldest  = latest - (buckets - 1) * STEP;
+        int[] slots   = new int[BUCKETS];   // live slots, oldest first
+        int   live    = 0;
+        for (long ts = oldest; ts <= latest; ts += STEP)
+        {
+            int slot = slotOf(ts);
+            if (stamps[slot] == ts) slots[live++] = slot;
+        }
+
+        PriceColumn.Builder column = new PriceColumn.Builder();
+        int[] at = new int[live];
+        for (int r = 0; r < rows; r++)
+        {
+            int  base   = r * BUCKETS;
+            long price  = 0;
+            long volume = 0;
+            for (int s = 0; s < live; s++)
+            {
+                at[s] = base + slots[s];
+                if (price == 0) price = prices[at[s]];
+                volume += volumes[at[s]];
+            }
+            if (price > 0 || volume > 0)
+            {
+                column.addStats(idOfRow[r], price, volume,
+                        Analytics.vwap(prices, volumes, at, live),
+                        Analytics.volatilityBasisPoints(prices, at, live));
+            }
+        }
+        return column.build();
+    }
+
+    private static int slotOf(long timestamp)
+    {
+        return (int) ((timestamp / STEP) % BUCKETS);
+    }
+
+    private int rowFor(int id)
+    {
+        if (id >= rowOfId.length)
+        {
+            int old = rowOfId.length;
+            rowOfId = Arrays.copyOf(rowOfId, Math.max(id + 1, old * 2));
+            Arrays.fill(rowOfId, old, rowOfId.length, -1);
+        }
+
+        int row = rowOfId[id];
+        if (row >= 0) return row;
+
+        if (rows == idOfRow.length)
+        {
+            int cap = rows * 2;
+            idOfRow = Arrays.copyOf(idOfRow, cap);
+            prices  = Arrays.copyOf(prices,  cap * BUCKETS);
+            volumes = Arrays.copyOf(volumes, cap * BUCKETS);
+        }
+
+        row = rows++;
+        rowOfId[id] = row;
+        idOfRow[row] = id;
+        return row;
+    }
+}
@@ -3,6 +3,8 @@ package com.flippingmasterminds;
 import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
+import net.runelite.client.config.Range;
+import net.runelite.client.config.Units;
 
 @ConfigGroup("flippingmasterminds")
 public interface FlippingMastermindsConfig extends Config
@@ -17,6 +19,17 @@ public interface FlippingMastermindsConfig extends Config
 		return "";
 	}
 
+	@ConfigItem(
+			keyName = "geSyncMode",
+			name = "GE Sync Mode",
+			description = "Full uploads the whole GE state on every change. Delta uploads only what changed, "
+					+ "with a periodic full resync, and needs a server that supports it; gzip also compresses it"
+	)
+	default GeSyncMode geSyncMode()
+	{
+		return GeSyncMode.FULL;
+	}
+
 	@ConfigItem(
 			keyName = "showVolume",
 			name = "Show Volume",
@@ -36,4 +49,46 @@ public interface FlippingMastermindsConfig extends Config
 	{
 		return true;
 	}
+
+	@ConfigItem(
+			keyName = "showAnalytics",
+			name = "Show Analytics",
+			description = "Display the margin and ROI after GE tax, and the window's VWAP and volatility, on each item row"
+	)
+	default boolean showAnalytics()
+	{
+		return true;
+	}
+
+	@ConfigItem(
+			keyName = "autoRefresh",
+			name = "Auto Refresh",
+			description = "Keep current prices live by polling /latest; each time window is re-fetched only when its bucket rolls over"
+	)
+	default boolean autoRefresh()
+	{
+		return false;
+	}
+
+	@Range(min = 30, max = 3600)
+	@Units(Units.SECONDS)
+	@ConfigItem(
+			keyName = "autoRefreshInterval",
+			name = "Auto Refresh Interval",
+			description = "How often Auto Refresh polls for current prices"
+	)
+	default int autoRefreshInterval()
+	{
+		return 60;
+	}
+
+	@ConfigItem(
+			keyName = "customWindows",
+			name = "Custom Time Ranges",
+			description = "Extra Time Range options, comma separated, e.g. 4h, 3d, 2w (units: m, h, d, w)"
+	)
+	default String customWindows()
+	{
+		return "";
+	}
 }
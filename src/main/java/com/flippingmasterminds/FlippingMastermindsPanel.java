@@ -17,20 +17,24 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class FlippingMastermindsPanel extends PluginPanel
 {
     // ── Filter controls ───────────────────────────────────────────────────────
-    private JComboBox<String> timeRangeDropdown;
+    private JComboBox<TimeWindow> timeRangeDropdown;
     private JComboBox<String> performanceDropdown;
+    private JComboBox<SortMetric> sortDropdown;
     private JTextField minPriceField;
     private JTextField maxPriceField;
     private JTextField minVolumeField;
+    private JTextField minMarginField;
 
     // ── Display toggles (driven by config, not checkboxes in the panel) ───────
     private boolean showVolume = true;
     private boolean showPrices = true;
+    private boolean showAnalytics = true;
 
     // ── Header widgets ────────────────────────────────────────────────────────
     private JButton refreshButton;
@@ -43,33 +47,48 @@ public class FlippingMastermindsPanel extends PluginPanel
     private JPanel paginationPanel;
     private JLabel pageInfoLabel;
 
-    // ── Pagination state ──────────────────────────────────────────────────────
-    private List<JPanel> resultPages = new ArrayList<>();
+    // ── Result list ───────────────────────────────────────────────────────────
+    // Virtualized: every row is painted by one shared renderer, so only the
+    // visible rows ever cost anything regardless of how many items match.
+    private final ResultListModel resultModel = new ResultListModel();
+    private JList<ItemRow> resultList;
+    private RowRenderer    rowRenderer;
+    private JPanel         noResultsPanel;
+
+    // ── Pagination / hover state ──────────────────────────────────────────────
     private int currentPage = 0;
+    private int scrollDirection = 1;   // +1 towards later pages, -1 towards earlier ones
+    private int lastFirstVisible = 0;
+    private boolean keepScroll = false; // latest filter came from a live price update
+    private int hoverIndex  = -1;   // row whose wiki globe is under the mouse
+    private int pressIndex  = -1;   // row whose wiki globe is being pressed
+
+    // ── Filtering (runs off the EDT) ──────────────────────────────────────────
+    private final FilterEngine filterEngine;
 
     // ── Data ──────────────────────────────────────────────────────────────────
-    // CHANGED: Map value type Integer → Long to handle prices > Integer.MAX_VALUE
-    private Map<Integer, Long> baseline, day, week, month, year;
+    // Shared, immutable snapshot published by the plugin (long columns handle
+    // prices > Integer.MAX_VALUE)
+    private MarketSnapshot snapshot = MarketSnapshot.EMPTY;
     private Map<Integer, FlippingMastermindsPlugin.ItemMeta> meta;
-    private Map<Integer, Long> dayVolume    = Collections.emptyMap();
-    private Map<Integer, Long> weekVolume   = Collections.emptyMap();
-    private Map<Integer, Long> monthVolume  = Collections.emptyMap();
-    private Map<Integer, Long> yearVolume   = Collections.emptyMap();
 
     // ── Image loading ─────────────────────────────────────────────────────────
-    private final ConcurrentMap<Integer, ImageIcon> imageCache = new ConcurrentHashMap<>();
-    private final Set<Integer> loadingSet = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    private final ExecutorService imageLoader;
+    private final IconLoader iconLoader;
     private final ImageIcon placeholderIcon;
+    // Item id -> list index of each row in view, rebuilt whenever the view moves
+    private final Map<Integer, Integer> visibleRowById = new HashMap<>();
+    // Downloads finished since the last EDT flush; at most one flush is queued
+    private final Queue<Integer> loadedIcons      = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean  iconFlushPending = new AtomicBoolean();
 
     // ── Plugin callback ───────────────────────────────────────────────────────
     private Runnable onRefreshRequested;
 
     // ── Constants ─────────────────────────────────────────────────────────────
     private static final int ITEMS_PER_PAGE = 20;
-    private static final int ICON_SIZE      = 32;
+    static final int ICON_SIZE              = 32;
     private static final int NAME_LIMIT     = 20;
-    private static final int MAX_PAGES      = 10;
+    private static final long TYPING_DEBOUNCE_MS = 250;
     private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("HH:mm:ss");
 
     // Hover/press colours for animated buttons
@@ -77,6 +96,14 @@ public class FlippingMastermindsPanel extends PluginPanel
     private static final Color BTN_PRESS_BG = new Color(90, 90, 90);
     private static final int   BTN_ARC      = 6;
 
+    private static final Color ROW_BG  = new Color(34, 34, 34);
+    private static final int   ROW_GAP = 4;
+
+    /** Sizes the fixed row height; never shown. */
+    private static final ItemRow PROTOTYPE_ROW = new ItemRow(
+            0, "Prototype", null, 12.34, 1_000_000, 1_000_000, 1_000_000, 1_000_000,
+            1_000_000, 1.23, 1_000_000, 12.34, 0, 0);
+
     // ─────────────────────────────────────────────────────────────────────────
 
     /**
@@ -84,18 +111,18 @@ public class FlippingMastermindsPanel extends PluginPanel
      * NOT wrap the entire panel in its own JScrollPane. This lets us control
      * the layout precisely: fixed header at top, scrollable item list in the
      * middle, fixed pagination bar at the bottom.
+     *
+     * @param iconLoader downloads row icons into their memory + disk cache
      */
-    public FlippingMastermindsPanel()
+    public FlippingMastermindsPanel(IconLoader iconLoader)
     {
         super(false);
 
-        imageLoader = Executors.newFixedThreadPool(3, r -> {
-            Thread t = new Thread(r, "ge-panel-image-loader");
-            t.setDaemon(true);
-            return t;
-        });
+        this.iconLoader = iconLoader;
+        iconLoader.setOnLoaded(this::onIconLoaded);
 
         placeholderIcon = makePlaceholderIcon(ICON_SIZE, ICON_SIZE);
+        filterEngine    = new FilterEngine(this::renderResults);
 
         setLayout(new BorderLayout());
         add(createHeaderPanel(),     BorderLayout.NORTH);
@@ -114,21 +141,43 @@ public class FlippingMastermindsPanel extends PluginPanel
     }
 
     /**
-     * Called once on startup and whenever the user changes the Show Volume or
-     * Show Prices config items in the RuneLite settings panel.
-     * Triggers a list rebuild if data is already loaded.
+     * Called once on startup and whenever the user changes the Show Volume,
+     * Show Prices or Show Analytics config items in the RuneLite settings panel.
+     * Re-renders the current results if any are shown.
      */
-    public void applyConfig(boolean showVolume, boolean showPrices)
+    public void applyConfig(boolean showVolume, boolean showPrices, boolean showAnalytics)
     {
-        boolean changed = (this.showVolume != showVolume) || (this.showPrices != showPrices);
-        this.showVolume = showVolume;
-        this.showPrices = showPrices;
-        if (changed && baseline != null && meta != null)
+        boolean changed = (this.showVolume != showVolume) || (this.showPrices != showPrices)
+                || (this.showAnalytics != showAnalytics);
+        this.showVolume    = showVolume;
+        this.showPrices    = showPrices;
+        this.showAnalytics = showAnalytics;
+        // Display toggles only change rendering (and the row height), never the result
+        if (changed)
         {
-            rebuildResults();
+            // JList ignores a prototype equal to the current one, so clear it first to force a re-measure
+            resultList.setPrototypeCellValue(null);
+            resultList.setFixedCellHeight(-1);
+            resultList.setPrototypeCellValue(PROTOTYPE_ROW);
+            resultList.repaint();
         }
     }
 
+    /**
+     * Sets the Time Range options, e.g. after the user edits the Custom Time
+     * Ranges config item. The selection is kept if it is still offered,
+     * otherwise it falls back to Day.
+     */
+    public void setWindows(List<TimeWindow> windows)
+    {
+        TimeWindow selected = selectedWindow();
+        DefaultComboBoxModel<TimeWindow> model = new DefaultComboBoxModel<>(windows.toArray(new TimeWindow[0]));
+        model.setSelectedItem(windows.contains(selected) ? selected : TimeWindow.DAY);
+        timeRangeDropdown.setModel(model);
+
+        if (model.getSelectedItem() != selected) refreshWithFilters();
+    }
+
     // ── Panel builders ────────────────────────────────────────────────────────
 
     private JPanel createHeaderPanel()
@@ -172,7 +221,7 @@ public class FlippingMastermindsPanel extends PluginPanel
 
         // Row 0 – Time Range
         filterPanel.add(new JLabel("Time Range:"), lbl);
-        timeRangeDropdown = new JComboBox<>(new String[]{"Day", "Week", "Month", "Year"});
+        timeRangeDropdown = new JComboBox<>(TimeWindow.builtIns().toArray(new TimeWindow[0]));
         filterPanel.add(timeRangeDropdown, fld);
 
         // Row 1 – Performance
@@ -182,13 +231,20 @@ public class FlippingMastermindsPanel extends PluginPanel
                 new String[]{"Top Performers", "Underperformers"});
         filterPanel.add(performanceDropdown, fld);
 
-        // Row 2 – Min Price
+        // Row 2 – Sort By
+        lbl.gridy++; fld.gridy++;
+        filterPanel.add(new JLabel("Sort By:"), lbl);
+        sortDropdown = new JComboBox<>(SortMetric.values());
+        sortDropdown.setToolTipText("Orders the selected performers; volatility needs a window of 24 hours or less");
+        filterPanel.add(sortDropdown, fld);
+
+        // Row 3 – Min Price
         lbl.gridy++; fld.gridy++;
         filterPanel.add(new JLabel("Min Price:"), lbl);
         minPriceField = new JTextField("1");
         filterPanel.add(minPriceField, fld);
 
-        // Row 3 – Max Price
+        // Row 4 – Max Price
         // CHANGED: default was Integer.MAX_VALUE (2147483647); raised to Long.MAX_VALUE
         // so items priced above the old int ceiling aren't excluded by default
         lbl.gridy++; fld.gridy++;
@@ -196,13 +252,20 @@ public class FlippingMastermindsPanel extends PluginPanel
         maxPriceField = new JTextField(String.valueOf(Long.MAX_VALUE));
         filterPanel.add(maxPriceField, fld);
 
-        // Row 4 – Min Volume
+        // Row 5 – Min Volume
         lbl.gridy++; fld.gridy++;
         filterPanel.add(new JLabel("Min Volume:"), lbl);
         minVolumeField = new JTextField("0");
         minVolumeField.setToolTipText("Minimum total trades in the selected time window");
         filterPanel.add(minVolumeField, fld);
 
+        // Row 6 – Min Margin (blank = no limit)
+        lbl.gridy++; fld.gridy++;
+        filterPanel.add(new JLabel("Min Margin:"), lbl);
+        minMarginField = new JTextField("");
+        minMarginField.setToolTipText("Minimum latest instant-buy minus instant-sell price; leave blank for no limit");
+        filterPanel.add(minMarginField, fld);
+
         headerPanel.add(filterPanel);
 
         // Refresh row
@@ -228,17 +291,49 @@ public class FlippingMastermindsPanel extends PluginPanel
     }
 
     /**
-     * The CENTER region: a JScrollPane whose viewport holds the item list.
-     * Only this region scrolls; the header (NORTH) and pagination bar (SOUTH)
-     * stay fixed.
+     * The CENTER region: a JScrollPane whose viewport holds the virtualized
+     * result list. Only this region scrolls; the header (NORTH) and pagination
+     * bar (SOUTH) stay fixed.
      */
     private JScrollPane createBodyPanel()
     {
+        rowRenderer = new RowRenderer();
+
+        resultList = new JList<ItemRow>(resultModel)
+        {
+            @Override
+            public String getToolTipText(MouseEvent e)
+            {
+                if (globeIndexAt(e.getPoint()) >= 0) return "View on Wiki Prices";
+                int i = locationToIndex(e.getPoint());
+                return i >= 0 ? rowToolTip(resultModel.getElementAt(i)) : null;
+            }
+
+            // Rows always span the sidebar width; there is no horizontal scrolling
+            @Override
+            public boolean getScrollableTracksViewportWidth()
+            {
+                return true;
+            }
+        };
+        resultList.setCellRenderer(rowRenderer);
+        // A fixed row height lets the list lay out without measuring every row
+        resultList.setPrototypeCellValue(PROTOTYPE_ROW);
+        resultList.setBackground(getBackground());
+        resultList.setFocusable(false);
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        ToolTipManager.sharedInstance().registerComponent(resultList);
+        attachGlobeListener();
+
+        noResultsPanel = new JPanel(new GridBagLayout());
+        noResultsPanel.add(new JLabel("No results found."));
+
         viewportScroll = new JScrollPane();
         viewportScroll.setBorder(null);
         viewportScroll.setBackground(getBackground());
         viewportScroll.setHorizontalScrollBarPolicy(
                 ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+        viewportScroll.getViewport().addChangeListener(e -> onViewportScrolled());
 
         JScrollBar vsb = viewportScroll.getVerticalScrollBar();
         vsb.setPreferredSize(new Dimension(8, 0));
@@ -281,187 +376,290 @@ public class FlippingMastermindsPanel extends PluginPanel
     {
         timeRangeDropdown  .addActionListener(e -> refreshWithFilters());
         performanceDropdown.addActionListener(e -> refreshWithFilters());
-        addDocumentListener(minPriceField,  this::refreshWithFilters);
-        addDocumentListener(maxPriceField,  this::refreshWithFilters);
-        addDocumentListener(minVolumeField, this::refreshWithFilters);
-    }
-
-    // ── Public data entry point ───────────────────────────────────────────────
-
-    // CHANGED: all Map<Integer, Integer> price/volume parameters → Map<Integer, Long>
-    public void updateMovers(
-            Map<Integer, Long> baseline,
-            Map<Integer, Long> day,
-            Map<Integer, Long> week,
-            Map<Integer, Long> month,
-            Map<Integer, Long> year,
-            Map<Integer, FlippingMastermindsPlugin.ItemMeta> meta,
-            Map<Integer, Long> dayVolume,
-            Map<Integer, Long> weekVolume,
-            Map<Integer, Long> monthVolume,
-            Map<Integer, Long> yearVolume)
-    {
-        this.baseline    = baseline;
-        this.day         = day;
-        this.week        = week;
-        this.month       = month;
-        this.year        = year;
-        this.meta        = meta;
-        this.dayVolume   = dayVolume   != null ? dayVolume   : Collections.emptyMap();
-        this.weekVolume  = weekVolume  != null ? weekVolume  : Collections.emptyMap();
-        this.monthVolume = monthVolume != null ? monthVolume : Collections.emptyMap();
-        this.yearVolume  = yearVolume  != null ? yearVolume  : Collections.emptyMap();
+        sortDropdown       .addActionListener(e -> refreshWithFilters());
+        addDocumentListener(minPriceField,  this::refreshWithFiltersDebounced);
+        addDocumentListener(maxPriceField,  this::refreshWithFiltersDebounced);
+        addDocumentListener(minVolumeField, this::refreshWithFiltersDebounced);
+        addDocumentListener(minMarginField, this::refreshWithFiltersDebounced);
+    }
+
+    // ── Public data entry points ──────────────────────────────────────────────
+    // The plugin fetches every endpoint concurrently and pushes each result
+    // here as it lands, so the list renders as soon as the baseline and the
+    // selected window are both in rather than after the slowest request.
 
+    /**
+     * @param changed the window whose column was replaced, or {@code null} if
+     *                the baseline changed (which affects every window)
+     */
+    public void updateSnapshot(MarketSnapshot snapshot, TimeWindow changed)
+    {
+        this.snapshot = snapshot;
+
+        // Windows the user isn't looking at are simply stored for later
+        if (changed == null || changed == selectedWindow()) refreshWithFilters();
+    }
+
+    /**
+     * Auto-refresh delivered new current prices. The results are re-filtered
+     * like any other update, but the list keeps its scroll position instead
+     * of jumping back to the first page.
+     */
+    public void updateLivePrices(MarketSnapshot snapshot)
+    {
+        this.snapshot = snapshot;
+        if (snapshot.hasBaseline()) submitFilter(0, true);
+    }
+
+    public void updateItemMeta(Map<Integer, FlippingMastermindsPlugin.ItemMeta> meta)
+    {
+        this.meta = meta;
+        refreshWithFilters();
+    }
+
+    /** Called once every fetch of a refresh has completed or failed. */
+    public void refreshFinished()
+    {
         refreshButton.setEnabled(true);
         refreshButton.setText("⟳ Refresh");
-        lastUpdatedLabel.setText("Updated " + LocalTime.now().format(TIME_FMT));
+        markUpdated();
+    }
 
-        rebuildResults();
+    /** Stamps the "Updated" label; also called after each auto-refresh poll. */
+    public void markUpdated()
+    {
+        lastUpdatedLabel.setText("Updated " + LocalTime.now().format(TIME_FMT));
     }
 
     // ── Building / filtering results ──────────────────────────────────────────
 
     private void refreshWithFilters()
     {
-        if (baseline != null && meta != null) rebuildResults();
+        if (snapshot.hasBaseline()) rebuildResults();
     }
 
+    /** Re-runs the filter immediately, e.g. after new data or a dropdown change. */
     private void rebuildResults()
     {
-        String timeRange = safeSelected(timeRangeDropdown,   "Day");
-        String perf      = safeSelected(performanceDropdown, "Top Performers");
+        submitFilter(0);
+    }
+
+    /** Re-runs the filter once typing pauses; superseded keystrokes never scan. */
+    private void refreshWithFiltersDebounced()
+    {
+        if (snapshot.hasBaseline()) submitFilter(TYPING_DEBOUNCE_MS);
+    }
+
+    /**
+     * Captures the current data and filter fields on the EDT and hands them to
+     * the background {@link FilterEngine}; {@link #renderResults} receives the
+     * ranked result back on the EDT.
+     */
+    private void submitFilter(long delayMs)
+    {
+        submitFilter(delayMs, false);
+    }
+
+    private void submitFilter(long delayMs, boolean live)
+    {
         // CHANGED: min/max price filters now parsed as long
-        long   min       = safeParseLong(minPriceField.getText(),  1L);
-        long   max       = safeParseLong(maxPriceField.getText(),  Long.MAX_VALUE);
-        long   minVol    = safeParseLong(minVolumeField.getText(), 0L);
+        long min    = safeParseLong(minPriceField.getText(),  1L);
+        long max    = safeParseLong(maxPriceField.getText(),  Long.MAX_VALUE);
+        long minVol = safeParseLong(minVolumeField.getText(), 0L);
+        long minMrg = safeParseLong(minMarginField.getText(), MarketSnapshot.NO_MARGIN);
 
         if (min > max) return;
 
-        // CHANGED: snapshot and volumeMap are Map<Integer, Long>
-        Map<Integer, Long> snapshot;
-        Map<Integer, Long> volumeMap;
-        switch (timeRange)
+        boolean top = "Top Performers".equals(safeSelected(performanceDropdown, "Top Performers"));
+        keepScroll  = live;
+        filterEngine.submit(new FilterEngine.Query(
+                snapshot, meta, selectedWindow(), top, selectedSort(), min, max, minVol, minMrg), delayMs);
+    }
+
+    private void renderResults(RankedResult result)
+    {
+        hoverIndex = -1;
+        pressIndex = -1;
+
+        if (keepScroll && resultModel.getSize() > 0 && result.size() > 0)
         {
-            case "Week":  snapshot = week;  volumeMap = weekVolume;  break;
-            case "Month": snapshot = month; volumeMap = monthVolume; break;
-            case "Year":  snapshot = year;  volumeMap = yearVolume;  break;
-            default:      snapshot = day;   volumeMap = dayVolume;   break;
+            Point position = viewportScroll.getViewport().getViewPosition();
+            resultModel.setResult(result);
+            // After the list has been re-laid out, so a shorter list clamps the position
+            SwingUtilities.invokeLater(() -> {
+                int height = viewportScroll.getViewport().getExtentSize().height;
+                resultList.scrollRectToVisible(new Rectangle(position.x, position.y, 1, height));
+                onViewportScrolled();
+                pageInfoLabel.setText("Page " + (currentPage + 1) + " / " + totalPages());
+            });
+            return;
         }
-        if (snapshot  == null) snapshot  = Collections.emptyMap();
-        if (volumeMap == null) volumeMap = Collections.emptyMap();
 
-        List<Row> rows = new ArrayList<>();
-        for (Map.Entry<Integer, Long> e : baseline.entrySet())
+        resultModel.setResult(result);
+        scrollDirection = 1;
+        showPage(0);
+        // Runs after showPage's scroll, so queued loads for the old result are replaced
+        SwingUtilities.invokeLater(this::loadVisibleIcons);
+    }
+
+    // ── Row renderer ──────────────────────────────────────────────────────────
+
+    /**
+     * Stamps each visible row. The wiki globe is painted, not a live button;
+     * {@link #attachGlobeListener()} hit-tests it and drives its hover state.
+     */
+    private final class RowRenderer extends JPanel implements ListCellRenderer<ItemRow>
+    {
+        private final JLabel         iconLabel   = new JLabel();
+        private final JLabel         nameLabel   = new JLabel();
+        private final JLabel         changeLabel = new JLabel();
+        private final JLabel         volLabel    = new JLabel();
+        private final JLabel         priceLabel  = new JLabel();
+        private final JLabel         statsLabel  = new JLabel();
+        private final AnimatedButton globe       = new AnimatedButton();
+
+        RowRenderer()
         {
-            int  id        = e.getKey();
-            long curPrice = e.getValue();
-            long snapPrice  = snapshot.getOrDefault(id, -1L);
+            super(new BorderLayout(8, 4));
+            setBackground(ROW_BG);
+            setBorder(BorderFactory.createCompoundBorder(
+                    BorderFactory.createMatteBorder(ROW_GAP / 2, 0, ROW_GAP / 2, 0,
+                            FlippingMastermindsPanel.this.getBackground()),
+                    BorderFactory.createEmptyBorder(6, 6, 6, 6)));
+
+            add(iconLabel, BorderLayout.WEST);
 
-            if (curPrice <= 0 || snapPrice <= 0) continue;
-            // Filter on current (baseline) price, NOT the historical snapshot price.
-            // This keeps the item list consistent when switching time ranges —
-            // only the % change column varies, never which items are shown.
-            if (curPrice < min || curPrice > max) continue;
+            // Text stack
+            JPanel textPanel = new JPanel();
+            textPanel.setLayout(new BoxLayout(textPanel, BoxLayout.Y_AXIS));
+            textPanel.setOpaque(false);
 
-            long volume = volumeMap.getOrDefault(id, 0L);
-            if (volume < minVol) continue;
+            nameLabel.setForeground(Color.WHITE);
+            textPanel.add(nameLabel);
+            textPanel.add(changeLabel);
+
+            volLabel.setForeground(new Color(140, 140, 180));
+            volLabel.setFont(volLabel.getFont().deriveFont(10f));
+            textPanel.add(volLabel);
 
-            double changePct = ((double)(curPrice - snapPrice) / snapPrice) * 100.0;
-            long   changeAbs = curPrice - snapPrice;
+            priceLabel.setForeground(new Color(180, 160, 100));
+            priceLabel.setFont(priceLabel.getFont().deriveFont(10f));
+            textPanel.add(priceLabel);
 
-            if (perf.equals("Top Performers")  && !(changePct > 0.0)) continue;
-            if (perf.equals("Underperformers") && !(changePct < 0.0)) continue;
+            statsLabel.setForeground(new Color(120, 180, 170));
+            statsLabel.setFont(statsLabel.getFont().deriveFont(10f));
+            textPanel.add(statsLabel);
 
-            FlippingMastermindsPlugin.ItemMeta im = meta.get(id);
-            if (im == null) continue;
+            add(textPanel, BorderLayout.CENTER);
 
-            rows.add(new Row(id, im.name, truncateName(im.name), im.iconUrl,
-                    changePct, changeAbs, volume, snapPrice, curPrice));
+            globe.setText("🌐");
+            globe.setFocusPainted(false);
+            globe.setContentAreaFilled(false);
+            globe.setBorderPainted(false);
+            globe.setOpaque(false);
+            globe.setForeground(new Color(180, 180, 220));
+            add(globe, BorderLayout.EAST);
         }
 
-        rows.sort((a, b) -> perf.equals("Top Performers")
-                ? Double.compare(b.changePct, a.changePct)
-                : Double.compare(a.changePct, b.changePct));
+        /** Width of the strip at a row's right edge that counts as the globe. */
+        int globeHitWidth()
+        {
+            return globe.getPreferredSize().width + getInsets().right;
+        }
 
-        List<JPanel> pages = new ArrayList<>();
-        for (int i = 0; i < rows.size(); i += ITEMS_PER_PAGE)
+        @Override
+        public Component getListCellRendererComponent(JList<? extends ItemRow> list, ItemRow r,
+                                                      int index, boolean isSelected, boolean cellHasFocus)
         {
-            if (pages.size() >= MAX_PAGES) break;
+            ImageIcon cached = iconLoader.getCached(r.id);
+            iconLabel.setIcon(cached != null ? cached : placeholderIcon);
 
-            JPanel page = new JPanel(new GridLayout(0, 1, 4, 4));
-            page.setBackground(getBackground());
+            nameLabel.setText(truncateName(r.name));
 
-            int end = Math.min(i + ITEMS_PER_PAGE, rows.size());
-            for (int j = i; j < end; j++)
-            {
-                Row r = rows.get(j);
-                page.add(makeRowPanel(r));
-                scheduleImageLoad(r.id, r.iconUrl);
-            }
-            pages.add(page);
+            // CHANGED: formatGp now takes long
+            String absText = (r.changeAbs > 0 ? "+" : "") + formatGp(r.changeAbs);
+            changeLabel.setText(String.format("%.2f%% (%s)", r.changePct, absText));
+            changeLabel.setForeground(r.changeAbs >= 0 ? new Color(0, 192, 0) : new Color(220, 50, 50));
+
+            // Volume line – shown only when config toggle is on
+            volLabel.setVisible(showVolume);
+            volLabel.setText(r.volume > 0 ? "Vol: " + formatNumber(r.volume) : " ");
+
+            // Historical → current price line – shown only when config toggle is on
+            priceLabel.setVisible(showPrices);
+            priceLabel.setText(formatGp(r.snapPrice) + " → " + formatGp(r.curPrice));
+
+            // Margin / ROI, VWAP and volatility line – shown only when config toggle is on
+            statsLabel.setVisible(showAnalytics);
+            statsLabel.setText(formatStats(r));
+
+            globe.setBg(index == pressIndex ? BTN_PRESS_BG
+                    : index == hoverIndex  ? BTN_HOVER_BG
+                    : null);
+            return this;
         }
-
-        resultPages = pages;
-        showPage(0);
     }
 
-    // ── Row panel builder ─────────────────────────────────────────────────────
-
-    private JPanel makeRowPanel(Row r)
+    /** Makes the painted wiki globe on each row behave like a button. */
+    private void attachGlobeListener()
     {
-        JPanel rowPanel = new JPanel(new BorderLayout(8, 4));
-        rowPanel.setBackground(new Color(34, 34, 34));
-        rowPanel.setBorder(BorderFactory.createEmptyBorder(6, 6, 6, 6));
-
-        // Item icon – name attribute lets refreshVisibleIcons find this label
-        JLabel iconLabel = new JLabel();
-        iconLabel.setName(String.valueOf(r.id));
-        ImageIcon cached = imageCache.get(r.id);
-        iconLabel.setIcon(cached != null ? cached : placeholderIcon);
-        rowPanel.add(iconLabel, BorderLayout.WEST);
-
-        // Text stack
-        JPanel textPanel = new JPanel();
-        textPanel.setLayout(new BoxLayout(textPanel, BoxLayout.Y_AXIS));
-        textPanel.setOpaque(false);
+        MouseAdapter mouse = new MouseAdapter()
+        {
+            @Override public void mouseMoved(MouseEvent e)   { setHover(globeIndexAt(e.getPoint())); }
+            @Override public void mouseExited(MouseEvent e)  { pressIndex = -1; setHover(-1); }
 
-        JLabel nameLabel = new JLabel(r.displayName);
-        nameLabel.setForeground(Color.WHITE);
-        nameLabel.setToolTipText(r.fullName);
-        textPanel.add(nameLabel);
+            @Override
+            public void mousePressed(MouseEvent e)
+            {
+                pressIndex = globeIndexAt(e.getPoint());
+                repaintRow(pressIndex);
+            }
 
-        // CHANGED: formatGp now takes long
-        String absText   = (r.changeAbs > 0 ? "+" : "") + formatGp(r.changeAbs);
-        Color  changeClr = r.changeAbs >= 0 ? new Color(0, 192, 0) : new Color(220, 50, 50);
-        JLabel changeLabel = new JLabel(String.format("%.2f%% (%s)", r.changePct, absText));
-        changeLabel.setForeground(changeClr);
-        textPanel.add(changeLabel);
+            @Override
+            public void mouseReleased(MouseEvent e)
+            {
+                int index = globeIndexAt(e.getPoint());
+                int pressed = pressIndex;
+                pressIndex = -1;
+                repaintRow(pressed);
+                if (index >= 0 && index == pressed)
+                {
+                    LinkBrowser.browse("https://prices.runescape.wiki/osrs/item/"
+                            + resultModel.getElementAt(index).id);
+                }
+            }
+        };
+        resultList.addMouseListener(mouse);
+        resultList.addMouseMotionListener(mouse);
+    }
 
-        // Volume line – shown only when config toggle is on
-        if (showVolume && r.volume > 0)
-        {
-            // CHANGED: formatNumber now takes long
-            JLabel volLabel = new JLabel("Vol: " + formatNumber(r.volume));
-            volLabel.setForeground(new Color(140, 140, 180));
-            volLabel.setFont(volLabel.getFont().deriveFont(10f));
-            textPanel.add(volLabel);
-        }
+    private void setHover(int index)
+    {
+        if (index == hoverIndex) return;
+        repaintRow(hoverIndex);
+        hoverIndex = index;
+        repaintRow(hoverIndex);
+        resultList.setCursor(index >= 0
+                ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR)
+                : Cursor.getDefaultCursor());
+    }
 
-        // Historical → current price line – shown only when config toggle is on
-        if (showPrices)
-        {
-            // CHANGED: formatGp now takes long
-            JLabel priceLabel = new JLabel(formatGp(r.snapPrice) + " → " + formatGp(r.curPrice));
-            priceLabel.setForeground(new Color(180, 160, 100));
-            priceLabel.setFont(priceLabel.getFont().deriveFont(10f));
-            priceLabel.setToolTipText("Price at start of window → Current price");
-            textPanel.add(priceLabel);
-        }
+    /** Index of the row whose globe contains {@code p}, or -1. */
+    private int globeIndexAt(Point p)
+    {
+        int index = resultList.locationToIndex(p);
+        if (index < 0) return -1;
 
-        rowPanel.add(textPanel, BorderLayout.CENTER);
-        rowPanel.add(createWikiButton(r.id), BorderLayout.EAST);
+        Rectangle cell = resultList.getCellBounds(index, index);
+        if (cell == null || !cell.contains(p)) return -1;
+        return p.x >= cell.x + cell.width - rowRenderer.globeHitWidth() ? index : -1;
+    }
 
-        return rowPanel;
+    private void repaintRow(int index)
+    {
+        if (index < 0 || index >= resultModel.getSize()) return;
+        Rectangle cell = resultList.getCellBounds(index, index);
+        if (cell != null) resultList.repaint(cell);
     }
 
     // ── Animated buttons ──────────────────────────────────────────────────────
@@ -492,29 +690,6 @@ public class FlippingMastermindsPanel extends PluginPanel
         }
     }
 
-    private AnimatedButton createWikiButton(int itemId)
-    {
-        AnimatedButton btn = new AnimatedButton();
-        btn.setText("🌐");
-        btn.setFocusPainted(false);
-        btn.setContentAreaFilled(false);
-        btn.setBorderPainted(false);
-        btn.setOpaque(false);
-        btn.setForeground(new Color(180, 180, 220));
-        btn.setToolTipText("View on Wiki Prices");
-        btn.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-        btn.addMouseListener(new MouseAdapter()
-        {
-            @Override public void mouseEntered(MouseEvent e)  { btn.setBg(BTN_HOVER_BG); }
-            @Override public void mouseExited(MouseEvent e)   { btn.setBg(null); }
-            @Override public void mousePressed(MouseEvent e)  { btn.setBg(BTN_PRESS_BG); }
-            @Override public void mouseReleased(MouseEvent e) { btn.setBg(BTN_HOVER_BG); }
-        });
-        btn.addActionListener(e -> LinkBrowser.browse(
-                "https://prices.runescape.wiki/osrs/item/" + itemId));
-        return btn;
-    }
-
     private AnimatedButton createIconHoverButton(String resourcePath, String url, String tooltip)
     {
         AnimatedButton btn = new AnimatedButton();
@@ -556,86 +731,109 @@ public class FlippingMastermindsPanel extends PluginPanel
 
     // ── Image loading ─────────────────────────────────────────────────────────
 
-    private void scheduleImageLoad(int id, String rawIconUrl)
+    /**
+     * Re-prioritizes icon downloads: the rows in view first, then a page ahead
+     * in the direction the user is moving, then a page behind. Anything queued
+     * earlier that is not in this list is dropped.
+     */
+    private void loadVisibleIcons()
     {
-        if (imageCache.containsKey(id) || loadingSet.contains(id)) return;
-        if (rawIconUrl == null || rawIconUrl.isEmpty())              return;
+        visibleRowById.clear();
 
-        loadingSet.add(id);
-        imageLoader.submit(() -> {
-            try
-            {
-                String urlStr = rawIconUrl.startsWith("http")
-                        ? rawIconUrl : sanitizeIconUrl(rawIconUrl);
-                BufferedImage img = ImageIO.read(new URL(urlStr));
-                if (img != null)
-                {
-                    Image scaled = img.getScaledInstance(ICON_SIZE, ICON_SIZE, Image.SCALE_SMOOTH);
-                    imageCache.put(id, new ImageIcon(scaled));
-                }
-            }
-            catch (Exception ignored) { }
-            finally { loadingSet.remove(id); }
+        int first = resultList.getFirstVisibleIndex();
+        int last  = resultList.getLastVisibleIndex();
+        if (first < 0 || viewportScroll.getViewport().getView() != resultList)
+        {
+            iconLoader.prefetch(Collections.emptyList());
+            return;
+        }
 
-            SwingUtilities.invokeLater(this::refreshVisibleIcons);
-        });
+        for (int i = first; i <= last; i++) visibleRowById.put(resultModel.getElementAt(i).id, i);
+
+        List<ItemRow> wanted = new ArrayList<>(last - first + 1 + 2 * ITEMS_PER_PAGE);
+        addRows(wanted, first, last, 1);
+        if (scrollDirection > 0)
+        {
+            addRows(wanted, last + 1, last + ITEMS_PER_PAGE, 1);
+            addRows(wanted, first - 1, first - ITEMS_PER_PAGE, -1);
+        }
+        else
+        {
+            addRows(wanted, first - 1, first - ITEMS_PER_PAGE, -1);
+            addRows(wanted, last + 1, last + ITEMS_PER_PAGE, 1);
+        }
+        iconLoader.prefetch(wanted);
     }
 
-    private void refreshVisibleIcons()
+    /** Appends rows {@code from} to {@code to} inclusive, walking by {@code step}, clamped to the list. */
+    private void addRows(List<ItemRow> out, int from, int to, int step)
     {
-        if (resultPages.isEmpty() || currentPage < 0 || currentPage >= resultPages.size()) return;
+        int size = resultModel.getSize();
+        for (int i = from; step > 0 ? i <= to : i >= to; i += step)
+        {
+            if (i < 0 || i >= size) break;
+            out.add(resultModel.getElementAt(i));
+        }
+    }
 
-        Component view = viewportScroll.getViewport().getView();
-        if (!(view instanceof JPanel)) return;
+    /** Loader thread: records the finished icon and makes sure one EDT flush is queued. */
+    private void onIconLoaded(int itemId)
+    {
+        loadedIcons.add(itemId);
+        if (iconFlushPending.compareAndSet(false, true))
+        {
+            SwingUtilities.invokeLater(this::flushLoadedIcons);
+        }
+    }
 
-        JPanel wrapper = (JPanel) view;
-        if (wrapper.getComponentCount() == 0 || !(wrapper.getComponent(0) instanceof JPanel)) return;
+    /**
+     * Repaints just the rows whose icons arrived since the last flush. However
+     * many downloads finish in a burst, they cost one EDT task and one map
+     * lookup each; icons for rows out of view are picked up when painted.
+     */
+    private void flushLoadedIcons()
+    {
+        iconFlushPending.set(false);
 
-        JPanel page = (JPanel) wrapper.getComponent(0);
-        for (Component c : page.getComponents())
+        Integer id;
+        while ((id = loadedIcons.poll()) != null)
         {
-            if (!(c instanceof JPanel)) continue;
-            for (Component child : ((JPanel) c).getComponents())
-            {
-                if (!(child instanceof JLabel)) continue;
-                JLabel lbl = (JLabel) child;
-                String name = lbl.getName();
-                if (name == null) continue;
-                try
-                {
-                    ImageIcon icon = imageCache.get(Integer.parseInt(name));
-                    if (icon != null) lbl.setIcon(icon);
-                }
-                catch (NumberFormatException ignored) {}
-            }
+            Integer index = visibleRowById.get(id);
+            if (index != null) repaintRow(index);
         }
     }
 
     // ── Pagination ────────────────────────────────────────────────────────────
+    // Pages are fixed-size stretches of the one scrollable list; the buttons
+    // jump between them and the label follows manual scrolling.
+
+    private int totalPages()
+    {
+        return (resultModel.getSize() + ITEMS_PER_PAGE - 1) / ITEMS_PER_PAGE;
+    }
 
     private void showPage(int pageIndex)
     {
-        final int totalPages = resultPages.size();
+        final int totalPages = totalPages();
 
         if (totalPages == 0)
         {
-            JPanel noResults = new JPanel(new GridBagLayout());
-            noResults.add(new JLabel("No results found."));
-            viewportScroll.setViewportView(noResults);
+            viewportScroll.setViewportView(noResultsPanel);
             currentPage = 0;
             pageInfoLabel.setText("Page 0 / 0");
         }
         else
         {
+            scrollDirection = pageIndex < currentPage ? -1 : 1;
             if      (pageIndex < 0)            currentPage = totalPages - 1;
             else if (pageIndex >= totalPages)   currentPage = 0;
             else                                currentPage = pageIndex;
 
-            // Wrap in a BorderLayout.NORTH so the list doesn't stretch vertically
-            JPanel contentWrapper = new JPanel(new BorderLayout());
-            contentWrapper.setBackground(getBackground());
-            contentWrapper.add(resultPages.get(currentPage), BorderLayout.NORTH);
-            viewportScroll.setViewportView(contentWrapper);
+            if (viewportScroll.getViewport().getView() != resultList)
+                viewportScroll.setViewportView(resultList);
+
+            final int target = currentPage;
+            SwingUtilities.invokeLater(() -> scrollToPage(target));
 
             pageInfoLabel.setText("Page " + (currentPage + 1) + " / " + totalPages);
         }
@@ -644,13 +842,46 @@ public class FlippingMastermindsPanel extends PluginPanel
         paginationPanel.repaint();
         viewportScroll.revalidate();
         viewportScroll.repaint();
+    }
+
+    /** Scrolls so the page's first row is at the top (or as near as the list end allows). */
+    private void scrollToPage(int page)
+    {
+        int index = page * ITEMS_PER_PAGE;
+        if (index >= resultModel.getSize()) return;
+
+        Rectangle cell = resultList.getCellBounds(index, index);
+        if (cell == null) return;
+
+        JViewport viewport = viewportScroll.getViewport();
+        resultList.scrollRectToVisible(new Rectangle(0, cell.y, 1, viewport.getExtentSize().height));
+    }
 
-        if (totalPages > 0)
+    /** Keeps the page label in step with manual scrolling and loads newly visible icons. */
+    private void onViewportScrolled()
+    {
+        if (viewportScroll.getViewport().getView() != resultList || resultModel.getSize() == 0) return;
+
+        int first = resultList.getFirstVisibleIndex();
+        int last  = resultList.getLastVisibleIndex();
+        if (first < 0) return;
+
+        if (first != lastFirstVisible)
+        {
+            scrollDirection  = first > lastFirstVisible ? 1 : -1;
+            lastFirstVisible = first;
+        }
+
+        int page = last == resultModel.getSize() - 1
+                ? totalPages() - 1
+                : first / ITEMS_PER_PAGE;
+        if (page != currentPage)
         {
-            SwingUtilities.invokeLater(() ->
-                    viewportScroll.getVerticalScrollBar().setValue(0));
-            refreshVisibleIcons();
+            currentPage = page;
+            pageInfoLabel.setText("Page " + (currentPage + 1) + " / " + totalPages());
         }
+
+        loadVisibleIcons();
     }
 
     // ── Formatting ────────────────────────────────────────────────────────────
@@ -675,6 +906,36 @@ public class FlippingMastermindsPanel extends PluginPanel
         return String.valueOf(num);
     }
 
+    /** The item name, plus how long ago each side of its latest price traded. */
+    private static String rowToolTip(ItemRow r)
+    {
+        if (r.highTime <= 0 && r.lowTime <= 0) return r.name;
+        long now = System.currentTimeMillis() / 1000;
+        return "<html>" + r.name + "<br>Insta-buy " + formatAge(r.highTime, now)
+                + " · Insta-sell " + formatAge(r.lowTime, now) + "</html>";
+    }
+
+    private static String formatAge(int time, long now)
+    {
+        if (time <= 0) return "unknown";
+        long secs = Math.max(0, now - time);
+        if (secs < 60)    return secs + "s ago";
+        if (secs < 3600)  return secs / 60 + "m ago";
+        if (secs < 86400) return secs / 3600 + "h ago";
+        return secs / 86400 + "d ago";
+    }
+
+    /** e.g. "Margin 1.2K · ROI 3.10% · VWAP 54.3K · σ 0.85%", skipping unknown parts. */
+    private static String formatStats(ItemRow r)
+    {
+        StringJoiner parts = new StringJoiner(" · ");
+        if (r.margin != 0)                  parts.add("Margin " + formatGp(r.margin));
+        if (!Double.isNaN(r.roiPct))        parts.add(String.format("ROI %.2f%%", r.roiPct));
+        if (r.vwap > 0)                     parts.add("VWAP " + formatGp(r.vwap));
+        if (!Double.isNaN(r.volatilityPct)) parts.add(String.format("σ %.2f%%", r.volatilityPct));
+        return parts.length() > 0 ? parts.toString() : " ";
+    }
+
     // ── Utilities ─────────────────────────────────────────────────────────────
 
     // CHANGED: safeParseInt replaced with safeParseLong for price/volume filter fields
@@ -684,6 +945,18 @@ public class FlippingMastermindsPanel extends PluginPanel
         catch (Exception e) { return fallback; }
     }
 
+    private TimeWindow selectedWindow()
+    {
+        Object sel = timeRangeDropdown.getSelectedItem();
+        return sel instanceof TimeWindow ? (TimeWindow) sel : TimeWindow.DAY;
+    }
+
+    private SortMetric selectedSort()
+    {
+        Object sel = sortDropdown.getSelectedItem();
+        return sel instanceof SortMetric ? (SortMetric) sel : SortMetric.CHANGE;
+    }
+
     private static String safeSelected(JComboBox<String> cb, String fallback)
     {
         Object sel = cb.getSelectedItem();
@@ -707,15 +980,6 @@ public class FlippingMastermindsPanel extends PluginPanel
         return name.substring(0, NAME_LIMIT) + "…";
     }
 
-    private static String sanitizeIconUrl(String raw)
-    {
-        String safe = raw.replace(" ", "_")
-                .replace("'", "%27")
-                .replace("(", "%28")
-                .replace(")", "%29");
-        return "https://oldschool.runescape.wiki/images/c/c0/" + safe + "?7263b";
-    }
-
     private static void addDocumentListener(JTextField field, Runnable onChange)
     {
         field.getDocument().addDocumentListener(new DocumentListener()
@@ -726,35 +990,40 @@ public class FlippingMastermindsPanel extends PluginPanel
         });
     }
 
-    public void dispose() { imageLoader.shutdownNow(); }
+    public void dispose()
+    {
+        filterEngine.shutdown();
+        iconLoader.shutdown();
+    }
 
-    // ── Row data class ────────────────────────────────────────────────────────
+    // ── List model ────────────────────────────────────────────────────────────
 
-    // CHANGED: changeAbs, volume, snapPrice, curPrice all int → long
-    private static class Row
+    /**
+     * Exposes a {@link RankedResult}; each row is built lazily from its
+     * precomputed snapshot position the first time the list asks for it.
+     */
+    private static final class ResultListModel extends AbstractListModel<ItemRow>
     {
-        final int    id;
-        final String fullName;
-        final String displayName;
-        final String iconUrl;
-        final double changePct;
-        final long   changeAbs;
-        final long   volume;
-        final long   snapPrice;
-        final long   curPrice;
+        private RankedResult result = RankedResult.EMPTY;
+
+        void setResult(RankedResult newResult)
+        {
+            int oldSize = result.size();
+            result = newResult;
+            if (oldSize > 0)         fireIntervalRemoved(this, 0, oldSize - 1);
+            if (result.size() > 0)   fireIntervalAdded(this, 0, result.size() - 1);
+        }
+
+        @Override
+        public int getSize()
+        {
+            return result.size();
+        }
 
-        Row(int id, String fullName, String displayName, String iconUrl,
-            double changePct, long changeAbs, long volume, long snapPrice, long curPrice)
+        @Override
+        public ItemRow getElementAt(int index)
         {
-            this.id          = id;
-            this.fullName    = fullName;
-            this.displayName = displayName;
-            this.iconUrl     = iconUrl;
-            this.changePct   = changePct;
-            this.changeAbs   = changeAbs;
-            this.volume      = volume;
-            this.snapPrice   = snapPrice;
-            this.curPrice    = curPrice;
+            return result.get(index);
         }
     }
-}
\ No newline at end of file
+}
@@ -10,6 +10,7 @@ import net.runelite.api.GrandExchangeOffer;
 import net.runelite.api.GrandExchangeOfferState;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.GrandExchangeOfferChanged;
+import net.runelite.client.RuneLite;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ConfigChanged;
@@ -23,11 +24,16 @@ import okhttp3.*;
 import javax.inject.Inject;
 import javax.swing.*;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 @Slf4j
 @PluginDescriptor(
@@ -50,39 +56,54 @@ public class FlippingMastermindsPlugin extends Plugin
 
 	@Inject private Gson gson;
 	@Inject private OkHttpClient okHttpClient;
-	private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
-	private static final String TARGET_URL = "http://api.flippingmasterminds.net/ge";
 
 	private long loginTime = 0;
 	/** Short window after login to let the client fully settle before we fire events. */
 	private static final long LOGIN_IGNORE_WINDOW_MS = 3_000;
 
-	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-	private ScheduledFuture<?> pendingSend = null;
-	private final long DEBOUNCE_DELAY_MS = 200;
-	private String lastReason = "Slot updated";
-	private String lastSentPayload = null;
+	private GeUploader geUploader;
 
 	private final OfferStateCache[] lastOfferStates = new OfferStateCache[8];
 
-	private ExecutorService executor;
+	private ScheduledExecutorService executor;
+	private ScheduledFuture<?> autoRefreshTask;
+	private final AtomicBoolean pollInFlight = new AtomicBoolean();
 
 	// ── Price / volume data held in memory ────────────────────────────────────
-	// CHANGED: Integer → Long to support prices > 2,147,483,647 gp (v2 API requirement)
-	private Map<Integer, Long> baselinePrices = new HashMap<>();
-	private Map<Integer, Long> dayPrices      = new HashMap<>();
-	private Map<Integer, Long> weekPrices     = new HashMap<>();
-	private Map<Integer, Long> monthPrices    = new HashMap<>();
-	private Map<Integer, Long> yearPrices     = new HashMap<>();
+	// Long-valued primitive columns support prices > 2,147,483,647 gp (v2 API requirement).
+	// The snapshot is immutable and replaced under snapshotLock as each fetch lands.
+	private final Object snapshotLock = new Object();
+	private volatile MarketSnapshot snapshot = MarketSnapshot.EMPTY;
 
-	private Map<Integer, Long> dayVolume   = new HashMap<>();
-	private Map<Integer, Long> weekVolume  = new HashMap<>();
-	private Map<Integer, Long> monthVolume = new HashMap<>();
-	private Map<Integer, Long> yearVolume  = new HashMap<>();
+	// Windows in the Time Range dropdown: the built-ins plus the user's custom ones
+	private volatile List<TimeWindow> windows = TimeWindow.builtIns();
 
-	private Map<Integer, ItemMeta> itemMeta = new HashMap<>();
+	// Bucket each window was last loaded from (snapshot URL, or newest /5m bucket);
+	// a refresh re-loads a window only once its bucket moves on
+	private final Map<TimeWindow, String> windowKeys = new ConcurrentHashMap<>();
 
-	private static final String USER_AGENT_HEADER = "Call from FMM Plugin, code owner discord: Lindor.";
+	private volatile Map<Integer, ItemMeta> itemMeta = new HashMap<>();
+	private ItemMetaCache itemMetaCache;
+	private SnapshotCache snapshotCache;
+	private final FiveMinuteSeries daySeries = new FiveMinuteSeries();
+	private PriceHistoryStore historyStore;
+
+	static final String USER_AGENT_HEADER        = "Call from FMM Plugin, code owner discord: Lindor.";
+	private static final String LATEST_URL        = "https://prices.runescape.wiki/api/v2/osrs/latest";
+	private static final String ITEM_META_URL     = "https://chisel.weirdgloop.org/gazproj/gazbot/os_dump.json";
+	private static final String FIVE_MIN_URL      = "https://prices.runescape.wiki/api/v2/osrs/5m?timestamp=";
+
+	/** Cap on /5m buckets requested per refresh or poll while the series is back-filling. */
+	private static final int SERIES_BUCKETS_PER_TICK = 24;
+
+	/** Local caches live under the RuneLite directory, one folder per plugin. */
+	static final File DATA_DIR = new File(RuneLite.RUNELITE_DIR, "flipping-masterminds");
+
+	/**
+	 * /latest and the item dump are submitted before any snapshot or /5m
+	 * request, so they always get a thread first.
+	 */
+	private static final int FETCH_THREADS = 6;
 
 	// ─────────────────────────────────────────────────────────────────────────
 	@Override
@@ -90,13 +111,23 @@ public class FlippingMastermindsPlugin extends Plugin
 	{
 		log.info("Flipping Masterminds plugin started");
 
-		panel = new FlippingMastermindsPanel();
+		geUploader = new GeUploader(client, buyLimitTracker, config, okHttpClient, gson, new File(DATA_DIR, "ge-spool"));
+		geUploader.start();
+
+		IconCache iconCache = new IconCache(new File(DATA_DIR, "icons"), FlippingMastermindsPanel.ICON_SIZE);
+		panel = new FlippingMastermindsPanel(
+				new IconLoader(okHttpClient, iconCache, new File(DATA_DIR, "icon-http-cache")));
+		itemMetaCache = new ItemMetaCache(DATA_DIR);
+		snapshotCache = new SnapshotCache(new File(DATA_DIR, "snapshots"));
+		historyStore  = new PriceHistoryStore(new File(DATA_DIR, "price-history.bin"));
 
 		// Wire the manual-refresh button back to this plugin
-		panel.setOnRefreshRequested(() -> executor.submit(this::fetchAllData));
+		panel.setOnRefreshRequested(this::requestRefresh);
 
 		// Apply persisted toggle states from config
-		panel.applyConfig(config.showVolume(), config.showPrices());
+		panel.applyConfig(config.showVolume(), config.showPrices(), config.showAnalytics());
+		windows = TimeWindow.withCustom(config.customWindows());
+		panel.setWindows(windows);
 
 		BufferedImage icon = null;
 		try
@@ -118,8 +149,17 @@ public class FlippingMastermindsPlugin extends Plugin
 		clientToolbar.addNavigation(navButton);
 		loggedIn = false;
 
-		executor = Executors.newSingleThreadExecutor();
-		executor.submit(this::fetchAllData);
+		executor = Executors.newScheduledThreadPool(FETCH_THREADS, r -> {
+			Thread t = new Thread(r, "fmm-price-fetch");
+			t.setDaemon(true);
+			return t;
+		});
+		// Show whatever is on disk straight away, then go to the network
+		executor.execute(() -> {
+			restoreFromDisk();
+			fetchAllData();
+		});
+		scheduleAutoRefresh();
 	}
 
 	@Override
@@ -132,9 +172,9 @@ public class FlippingMastermindsPlugin extends Plugin
 		if (panel    != null) panel.dispose();
 
 		if (executor != null) executor.shutdownNow();
+		if (historyStore != null) historyStore.close();
 
-		if (pendingSend != null && !pendingSend.isDone()) pendingSend.cancel(false);
-		scheduler.shutdownNow();
+		if (geUploader != null) geUploader.shutdown();
 	}
 
 	// ── Game-state events ─────────────────────────────────────────────────────
@@ -144,19 +184,19 @@ public class FlippingMastermindsPlugin extends Plugin
 	{
 		if (event.getGameState() == GameState.LOGGED_IN)
 		{
+			// LOGGED_IN also follows every LOADING; only a real login or hop clears loggedIn first
+			boolean freshLogin = !loggedIn;
 			loggedIn  = true;
 			loginTime = System.currentTimeMillis();
 			log.info("Account logged in – GE scanning enabled (cooldown started)");
 
+			if (freshLogin) geUploader.loggedIn();
+
 			// Send an immediate GE snapshot on login (if token is set)
 			if (!config.apiToken().isEmpty())
 			{
 				// Schedule just after the ignore window so the client is ready
-				scheduler.schedule(
-						() -> sendOffersIfChanged("Login snapshot"),
-						LOGIN_IGNORE_WINDOW_MS,
-						TimeUnit.MILLISECONDS
-				);
+				geUploader.requestSendAfter("Login snapshot", LOGIN_IGNORE_WINDOW_MS);
 			}
 			else
 			{
@@ -167,6 +207,7 @@ public class FlippingMastermindsPlugin extends Plugin
 				|| event.getGameState() == GameState.HOPPING)
 		{
 			loggedIn = false;
+			geUploader.loggedOut();
 			log.debug("Account logged out – GE scanning disabled");
 		}
 	}
@@ -175,7 +216,8 @@ public class FlippingMastermindsPlugin extends Plugin
 
 	/**
 	 * Fired whenever any config value changes in the RuneLite settings panel.
-	 * We only care about our own group's display toggles; other keys are ignored.
+	 * We only care about our own group's display toggles, refresh settings,
+	 * time windows and API token; other keys are ignored.
 	 */
 	@Subscribe
 	public void onConfigChanged(ConfigChanged event)
@@ -183,10 +225,30 @@ public class FlippingMastermindsPlugin extends Plugin
 		if (!"flippingmasterminds".equals(event.getGroup())) return;
 
 		String key = event.getKey();
-		if ("showVolume".equals(key) || "showPrices".equals(key))
+		if ("showVolume".equals(key) || "showPrices".equals(key) || "showAnalytics".equals(key))
 		{
 			SwingUtilities.invokeLater(() ->
-					panel.applyConfig(config.showVolume(), config.showPrices()));
+					panel.applyConfig(config.showVolume(), config.showPrices(), config.showAnalytics()));
+		}
+		else if ("autoRefresh".equals(key) || "autoRefreshInterval".equals(key))
+		{
+			scheduleAutoRefresh();
+		}
+		else if ("apiToken".equals(key))
+		{
+			geUploader.tokenChanged();
+		}
+		else if ("customWindows".equals(key))
+		{
+			List<TimeWindow> updated = TimeWindow.withCustom(config.customWindows());
+			windows = updated;
+			SwingUtilities.invokeLater(() -> panel.setWindows(updated));
+
+			// Load just the new windows; existing ones keep their data
+			if (executor != null && !executor.isShutdown())
+			{
+				executor.execute(() -> fetchRolledOverWindows(Instant.now().getEpochSecond(), new ArrayList<>()));
+			}
 		}
 	}
 
@@ -195,6 +257,9 @@ public class FlippingMastermindsPlugin extends Plugin
 	@Subscribe
 	public void onGrandExchangeOfferChanged(GrandExchangeOfferChanged event)
 	{
+		// Tracked even while nothing is sent, so it always matches the client
+		boolean slotChanged = geUploader.offerChanged(event.getSlot(), event.getOffer());
+
 		if (!loggedIn || config.apiToken().isEmpty()) return;
 
 		long now = System.currentTimeMillis();
@@ -233,175 +298,320 @@ public class FlippingMastermindsPlugin extends Plugin
 		else
 			lastOfferStates[slot] = null;
 
-		lastReason = "Slot updated: " + event.getSlot();
-		if (pendingSend != null && !pendingSend.isDone()) pendingSend.cancel(false);
-		pendingSend = scheduler.schedule(
-				() -> sendOffersIfChanged(lastReason), DEBOUNCE_DELAY_MS, TimeUnit.MILLISECONDS);
+		// Repeated events for an unchanged slot need no upload
+		if (!slotChanged) return;
+
+		geUploader.requestSend("Slot updated: " + event.getSlot());
 	}
 
-	// ── Sending GE data ───────────────────────────────────────────────────────
+	// ── Price / volume fetching ───────────────────────────────────────────────
+
+	/** Refresh button handler: runs {@link #fetchAllData} on the fetch pool, off the EDT. */
+	private void requestRefresh()
+	{
+		if (executor != null && !executor.isShutdown()) executor.execute(this::fetchAllData);
+	}
 
-	private void sendOffersIfChanged(String reason)
+	/**
+	 * Fires every price, volume and metadata request concurrently and pushes
+	 * each result to the panel as soon as it lands, so the selected window can
+	 * render without waiting on the slower snapshots or the item dump.
+	 */
+	void fetchAllData()
 	{
-		if (client == null
-				|| client.getGrandExchangeOffers() == null
-				|| client.getLocalPlayer()        == null)
-		{
-			log.debug("sendOffersIfChanged: client not ready, skipping");
-			return;
-		}
+		long now = Instant.now().getEpochSecond();
 
-		GrandExchangeOffer[]          offers    = client.getGrandExchangeOffers();
-		List<Map<String, Object>>     offerList = new ArrayList<>();
+		List<CompletableFuture<?>> fetches = new ArrayList<>();
+		fetches.add(fetchAsync("latest prices", this::fetchAndKeepLatest)
+				.thenAccept(latest -> publish(s -> s.withBaseline(latest), null)));
 
-		for (int i = 0; i < offers.length; i++)
-		{
-			GrandExchangeOffer    offer    = offers[i];
-			Map<String, Object>   slotData = new HashMap<>();
-			slotData.put("slot", i);
+		fetches.add(fetchAsync("item metadata", () -> fetchItemMeta(ITEM_META_URL))
+				.thenAccept(meta -> {
+					if (meta == null) return; // cached copy is current
+					itemMeta = meta;
+					SwingUtilities.invokeLater(() -> panel.updateItemMeta(meta));
+				}));
 
-			if (offer == null || offer.getState() == GrandExchangeOfferState.EMPTY)
-			{
-				slotData.put("state", "EMPTY");
-			}
-			else
-			{
-				slotData.put("state",          offer.getState().toString());
-				slotData.put("itemId",         offer.getItemId());
-				slotData.put("quantitySold",   offer.getQuantitySold());
-				slotData.put("totalQuantity",  offer.getTotalQuantity());
-				slotData.put("price",          offer.getPrice());
-			}
-			offerList.add(slotData);
-		}
+		fetchRolledOverWindows(now, fetches);
+
+		// Re-enable the refresh button once everything has settled, even on failure
+		CompletableFuture.allOf(fetches.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, e) ->
+				SwingUtilities.invokeLater(panel::refreshFinished));
+	}
+
+	/**
+	 * Publishes the last stored /latest baseline and replays the Day series
+	 * from the local price history, so the panel has data before any request
+	 * completes. The first refresh then only fetches what the disk lacks.
+	 */
+	private void restoreFromDisk()
+	{
+		long now = Instant.now().getEpochSecond();
+		historyStore.open(now);
+		historyStore.maintain(now);
+
+		PriceColumn latest = snapshotCache.load(SnapshotCache.LATEST_KEY);
+		if (latest != null) publish(s -> s.withBaseline(latest), null);
+
+		long newest = FiveMinuteSeries.latestClosedBucket(now);
+		long oldest = newest - (FiveMinuteSeries.BUCKETS - 1) * FiveMinuteSeries.STEP;
+		historyStore.replay((int) FiveMinuteSeries.STEP, oldest, newest,
+				(ts, bucket) -> daySeries.append(ts, bucket, now));
+		publishSeriesWindows(seriesWindows(), newest, true);
+	}
+
+	/** Fetches /latest and keeps a copy on disk for {@link #restoreFromDisk()}. */
+	private PriceColumn fetchAndKeepLatest() throws IOException
+	{
+		PriceColumn latest = fetchLatestPrices(LATEST_URL);
+		snapshotCache.save(SnapshotCache.LATEST_KEY, latest);
+		return latest;
+	}
+
+	/** Starts, restarts or stops the /latest poll to match the current config. */
+	private synchronized void scheduleAutoRefresh()
+	{
+		if (autoRefreshTask != null) autoRefreshTask.cancel(false);
+		autoRefreshTask = null;
+
+		if (executor == null || executor.isShutdown() || !config.autoRefresh()) return;
+
+		int interval = config.autoRefreshInterval();
+		autoRefreshTask = executor.scheduleWithFixedDelay(this::pollLatest, interval, interval, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Auto-refresh tick. Polls only /latest and patches the baseline, which
+	 * re-ranks just the items whose price moved; a window is re-fetched only
+	 * when its bucket has rolled over since it was last loaded.
+	 */
+	private void pollLatest()
+	{
+		if (!pollInFlight.compareAndSet(false, true)) return; // previous tick still running
+
+		long now = Instant.now().getEpochSecond();
+		List<CompletableFuture<?>> fetches = new ArrayList<>();
+		fetches.add(fetchAsync("latest prices", this::fetchAndKeepLatest)
+				.thenAccept(latest -> publishTo(s -> s.withLatest(latest), panel::updateLivePrices)));
 
-		List<Map<String, Object>>          buyLimitList = new ArrayList<>();
-		Map<Integer, Map<String, Object>>  tracked      = buyLimitTracker.getAllTracked();
+		fetchRolledOverWindows(now, fetches);
+
+		CompletableFuture.allOf(fetches.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, e) -> {
+			pollInFlight.set(false);
+			SwingUtilities.invokeLater(panel::markUpdated);
+		});
+	}
 
-		for (Map.Entry<Integer, Map<String, Object>> entry : tracked.entrySet())
+	/**
+	 * Adds a fetch for every window whose bucket differs from the one already
+	 * loaded, and evicts cached buckets that no window asks for any more.
+	 * Historical buckets never change, so an unchanged window is skipped.
+	 * Windows of up to 24 hours come from the rolling /5m series instead, but
+	 * only once it holds every bucket they span; until the back-fill gets
+	 * there they keep using their snapshot.
+	 */
+	private void fetchRolledOverWindows(long now, List<CompletableFuture<?>> into)
+	{
+		into.add(fetchSeriesBuckets(now));
+
+		Set<String> liveKeys = new HashSet<>();
+		liveKeys.add(SnapshotCache.LATEST_KEY);
+		for (TimeWindow window : windows)
 		{
-			Map<String, Object> record = new HashMap<>();
-			record.put("itemId",            entry.getKey());
-			record.put("quantityBought",    entry.getValue().get("quantityBought"));
-			record.put("firstBuyTimestamp", entry.getValue().get("firstBuyTimestamp"));
-			buyLimitList.add(record);
+			if (servedBySeries(window, now)) continue;
+
+			String url = windowUrl(window, now);
+			liveKeys.add(SnapshotCache.keyOf(url));
+			if (!url.equals(windowKeys.get(window))) into.add(fetchWindow(window, now));
 		}
+		executor.execute(() -> snapshotCache.retainOnly(liveKeys));
+	}
 
-		String playerName  = client.getLocalPlayer().getName();
-		long   accountHash = client.getAccountHash();
-
-		Map<String, Object> payloadMap = new HashMap<>();
-		payloadMap.put("reason",      reason);
-		payloadMap.put("playerName",  playerName);
-		payloadMap.put("accountHash", accountHash);
-		payloadMap.put("offers",      offerList);
-		payloadMap.put("buyLimits",   buyLimitList);
-
-		String jsonPayload = gson.toJson(payloadMap);
-		if (jsonPayload.equals(lastSentPayload)) return;
-		lastSentPayload = jsonPayload;
-
-		RequestBody body    = RequestBody.create(JSON_MEDIA_TYPE, jsonPayload);
-		Request     request = new Request.Builder()
-				.url(TARGET_URL)
-				.post(body)
-				.addHeader("Authorization", "Bearer " + config.apiToken())
-				.build();
+	/**
+	 * Appends the /5m buckets the series is missing and republishes every
+	 * window computed from it. Once the series is full this is one new bucket
+	 * per tick; until then the gap is back-filled a capped number at a time,
+	 * with the bucket 24h ago (the Day reference price) always fetched first.
+	 * With nothing to fetch, only windows not yet computed for the newest
+	 * bucket (e.g. one the user just added) are published.
+	 */
+	private CompletableFuture<?> fetchSeriesBuckets(long now)
+	{
+		List<TimeWindow> targets = seriesWindows();
+		long   latest  = FiveMinuteSeries.latestClosedBucket(now);
+		long[] missing = daySeries.missing(latest);
+		if (missing.length == 0)
+		{
+			publishSeriesWindows(targets, latest, false);
+			return CompletableFuture.completedFuture(null);
+		}
 
-		okHttpClient.newCall(request).enqueue(new Callback()
+		int count = Math.min(missing.length, SERIES_BUCKETS_PER_TICK);
+		CompletableFuture<?>[] buckets = new CompletableFuture<?>[count];
+		for (int i = 0; i < count; i++)
 		{
-			@Override
-			public void onFailure(Call call, IOException e)
-			{
-				log.error("❌ Failed to send GE data", e);
-			}
+			long ts = missing[i];
+			buckets[i] = fetchAsync("5m bucket " + ts, () -> fetchPricesAndVolume(FIVE_MIN_URL + ts))
+					.thenAccept(bucket -> {
+						// A bucket the API has not published yet is fetched again next tick
+						if (daySeries.append(ts, bucket, Instant.now().getEpochSecond()))
+						{
+							historyStore.append(ts, (int) FiveMinuteSeries.STEP, bucket);
+						}
+					});
+		}
 
-			@Override
-			public void onResponse(Call call, Response response) throws IOException
-			{
-				int    code = response.code();
-				String resp = response.body() != null ? response.body().string() : "";
-				response.close();
-				log.info("✅ GE data sent ({}) for {} | Response {}: {}", reason, playerName, code, resp);
-			}
+		// Publish whatever arrived, even if some buckets failed
+		return CompletableFuture.allOf(buckets).handle((ignored, e) -> {
+			publishSeriesWindows(targets, latest, true);
+			historyStore.maintain(Instant.now().getEpochSecond());
+			return null;
 		});
 	}
 
-	// ── Price / volume fetching ───────────────────────────────────────────────
+	/** Whether {@code window} fits the /5m series and the series holds all of it. */
+	private boolean servedBySeries(TimeWindow window, long now)
+	{
+		return window.fromSeries()
+				&& daySeries.covers(FiveMinuteSeries.latestClosedBucket(now), window.getSeconds());
+	}
 
-	/** Fetches all price and volume data then pushes it to the panel. */
-	void fetchAllData()
+	private List<TimeWindow> seriesWindows()
 	{
-		try
+		List<TimeWindow> out = new ArrayList<>();
+		for (TimeWindow window : windows)
 		{
-			// CHANGED: /v1/osrs/latest → /v2/osrs/latest
-			baselinePrices = fetchLatestPrices("https://prices.runescape.wiki/api/v2/osrs/latest");
-
-			long now = Instant.now().getEpochSecond();
-
-			PriceAndVolume day1h   = fetchPricesAndVolume(makeUrl1h(now, 86400));
-			PriceAndVolume week1h  = fetchPricesAndVolume(makeUrl1h(now, 604800));
-			PriceAndVolume month24 = fetchPricesAndVolume(makeUrl24h(now, 2629743));
-			PriceAndVolume year24  = fetchPricesAndVolume(makeUrl24h(now, 31556926));
-
-			dayPrices   = day1h.prices;
-			weekPrices  = week1h.prices;
-			monthPrices = month24.prices;
-			yearPrices  = year24.prices;
-
-			dayVolume   = day1h.volume;
-			weekVolume  = week1h.volume;
-			monthVolume = month24.volume;
-			yearVolume  = year24.volume;
-
-			itemMeta = fetchItemMeta("https://chisel.weirdgloop.org/gazproj/gazbot/os_dump.json");
-
-			SwingUtilities.invokeLater(() -> panel.updateMovers(
-					baselinePrices,
-					dayPrices, weekPrices, monthPrices, yearPrices,
-					itemMeta,
-					dayVolume, weekVolume, monthVolume, yearVolume
-			));
+			if (window.fromSeries()) out.add(window);
 		}
-		catch (Exception e)
+		return out;
+	}
+
+	/**
+	 * Computes {@code targets} from the series as of bucket {@code latest} and
+	 * publishes them. A window the series does not fully cover yet is left on
+	 * its snapshot, since a partial series would pass off a recent price as
+	 * the window's reference and undercount its volume. Unless {@code force},
+	 * a window already computed for that bucket is left alone, since its
+	 * column would be identical.
+	 */
+	private void publishSeriesWindows(List<TimeWindow> targets, long latest, boolean force)
+	{
+		String key = "5m-" + latest;
+		for (TimeWindow window : targets)
+		{
+			if (!daySeries.covers(latest, window.getSeconds())) continue;
+			if (!force && key.equals(windowKeys.get(window))) continue;
+
+			PriceColumn column = daySeries.toColumn(latest, window.getSeconds());
+			windowKeys.put(window, key);
+			publish(s -> s.withWindow(window, column), window);
+		}
+	}
+
+	/**
+	 * Loads a window's snapshot as of {@code now} from the snapshot cache,
+	 * then the local price history, falling back to the network (and filling
+	 * both).
+	 */
+	private CompletableFuture<Void> fetchWindow(TimeWindow window, long now)
+	{
+		String url   = windowUrl(window, now);
+		int    step  = windowStep(window);
+		long   start = windowStart(window, now);
+		return fetchAsync(window + " snapshot", () -> {
+					String      key    = SnapshotCache.keyOf(url);
+					PriceColumn column = snapshotCache.load(key);
+					if (column == null) column = historyStore.get(start, step);
+					if (column == null)
+					{
+						column = fetchPricesAndVolume(url);
+						snapshotCache.save(key, column);
+						historyStore.append(start, step, column);
+					}
+					return column;
+				})
+				.thenAccept(column -> {
+					// The series may have completed the window while the snapshot loaded
+					if (servedBySeries(window, Instant.now().getEpochSecond())) return;
+					windowKeys.put(window, url);
+					publish(s -> s.withWindow(window, column), window);
+				});
+	}
+
+	/**
+	 * Derives the next snapshot and hands it to the panel. The EDT post happens
+	 * under the lock so the panel always receives snapshots in the order they
+	 * were derived, even when fetches complete on different threads.
+	 *
+	 * @param changed the window that was replaced, or {@code null} for the baseline
+	 */
+	private void publish(UnaryOperator<MarketSnapshot> update, TimeWindow changed)
+	{
+		publishTo(update, next -> panel.updateSnapshot(next, changed));
+	}
+
+	/** As {@link #publish}, handing the new snapshot to {@code deliver} on the EDT; no-op if nothing changed. */
+	private void publishTo(UnaryOperator<MarketSnapshot> update, Consumer<MarketSnapshot> deliver)
+	{
+		synchronized (snapshotLock)
 		{
-			log.error("❌ Failed to fetch price data", e);
-			// Re-enable the refresh button even on failure
-			SwingUtilities.invokeLater(() -> {
-				panel.updateMovers(
-						baselinePrices,
-						dayPrices, weekPrices, monthPrices, yearPrices,
-						itemMeta,
-						dayVolume, weekVolume, monthVolume, yearVolume
-				);
-			});
+			MarketSnapshot next = update.apply(snapshot);
+			if (next == snapshot) return;
+			snapshot = next;
+			SwingUtilities.invokeLater(() -> deliver.accept(next));
 		}
 	}
 
+	/** Runs one blocking fetch on the fetch pool, logging its own failure. */
+	private <T> CompletableFuture<T> fetchAsync(String what, IOSupplier<T> fetch)
+	{
+		CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+			try
+			{
+				return fetch.get();
+			}
+			catch (IOException e)
+			{
+				throw new CompletionException(e);
+			}
+		}, executor);
+
+		future.whenComplete((result, e) -> {
+			if (e != null) log.error("❌ Failed to fetch {}", what, e);
+		});
+		return future;
+	}
+
 	// ── URL helpers ───────────────────────────────────────────────────────────
 
-	private String makeUrl1h(long now, long offset)
+	/** Snapshot URL for a window longer than the /5m series, aligned to the start of its API bucket. */
+	private String windowUrl(TimeWindow window, long now)
+	{
+		String endpoint = windowStep(window) == PriceHistoryStore.HOUR ? "1h" : "24h";
+		return "https://prices.runescape.wiki/api/v2/osrs/" + endpoint + "?timestamp=" + windowStart(window, now);
+	}
+
+	/** Bucket length of a window's snapshot: hourly data up to a week back, daily beyond. */
+	private static int windowStep(TimeWindow window)
 	{
-		long ts = now - offset;
-		ts -= ts % 3600;
-		return "https://prices.runescape.wiki/api/v2/osrs/1h?timestamp=" + ts;
+		return window.getSeconds() <= TimeWindow.WEEK.getSeconds() ? PriceHistoryStore.HOUR : PriceHistoryStore.DAY;
 	}
 
-	private String makeUrl24h(long now, long offset)
+	private static long windowStart(TimeWindow window, long now)
 	{
-		long ts = now - offset;
-		ts -= ts % 86400;
-		return "https://prices.runescape.wiki/api/v2/osrs/24h?timestamp=" + ts;
+		long ts = now - window.getSeconds();
+		return ts - ts % windowStep(window);
 	}
 
 	// ── HTTP fetchers ─────────────────────────────────────────────────────────
 
 	/**
-	 * Fetches a timestamped price endpoint and returns both mid-prices and trade volumes.
-	 * CHANGED: return type uses Long values to handle prices > Integer.MAX_VALUE.
-	 * CHANGED: avgHighPrice/avgLowPrice parsed as double (v2 allows up to 2 decimal places).
+	 * Fetches a timestamped price endpoint and returns both mid-prices and trade volumes,
+	 * keeping the average high and low price and the volume of each side as well.
+	 * Prices are long so values > Integer.MAX_VALUE are safe; avgHighPrice/avgLowPrice
+	 * are parsed as double (v2 allows up to 2 decimal places).
 	 */
-	private PriceAndVolume fetchPricesAndVolume(String urlStr) throws IOException
+	private PriceColumn fetchPricesAndVolume(String urlStr) throws IOException
 	{
 		Request request = new Request.Builder()
 				.url(urlStr)
@@ -413,54 +623,27 @@ public class FlippingMastermindsPlugin extends Plugin
 			if (!response.isSuccessful() || response.body() == null)
 				throw new IOException("Failed to fetch prices: " + response.code());
 
-			try (InputStreamReader reader = new InputStreamReader(response.body().byteStream()))
+			try (InputStreamReader reader = new InputStreamReader(response.body().byteStream(), StandardCharsets.UTF_8))
 			{
-				// CHANGED: Map value type Integer → Long
-				Map<Integer, Long> prices = new HashMap<>();
-				Map<Integer, Long> volume = new HashMap<>();
-
-				var root = gson.fromJson(reader, JsonObject.class);
-				var data = root.getAsJsonObject("data");
-
-				for (String key : data.keySet())
-				{
-					try
-					{
-						int id  = Integer.parseInt(key);
-						var obj = data.getAsJsonObject(key);
-
-						// CHANGED: getAsDouble() instead of getAsInt() — v2 allows decimals.
-						// Math.round() gives us the nearest long, safe for > 32-bit values.
-						if (obj.has("avgHighPrice") && obj.has("avgLowPrice")
-								&& !obj.get("avgHighPrice").isJsonNull()
-								&& !obj.get("avgLowPrice").isJsonNull())
-						{
-							double high = obj.get("avgHighPrice").getAsDouble();
-							double low  = obj.get("avgLowPrice").getAsDouble();
-							prices.put(id, Math.round((high + low) / 2.0));
-						}
-
-						// Volume – sum of highPriceVolume + lowPriceVolume
-						// CHANGED: accumulate into long to avoid int overflow on high-volume items
-						long vol = 0;
-						if (obj.has("highPriceVolume") && !obj.get("highPriceVolume").isJsonNull())
-							vol += obj.get("highPriceVolume").getAsLong();
-						if (obj.has("lowPriceVolume") && !obj.get("lowPriceVolume").isJsonNull())
-							vol += obj.get("lowPriceVolume").getAsLong();
-						if (vol > 0) volume.put(id, vol);
-					}
-					catch (Exception ignored) {}
-				}
-				return new PriceAndVolume(prices, volume);
+				PriceColumn.Builder column = new PriceColumn.Builder();
+
+				WikiPriceParser.parseAverages(reader, (id, avgHigh, highVol, avgLow, lowVol) -> {
+					// The raw averages go in unrounded, so the mid is rounded only once
+					if (avgHigh > 0 || avgLow > 0 || highVol > 0 || lowVol > 0)
+						column.addAverages(id, avgHigh, clampToInt(highVol), avgLow, clampToInt(lowVol));
+				});
+				return column.build();
 			}
 		}
 	}
 
 	/**
-	 * Fetches the /latest endpoint for current spot prices.
-	 * CHANGED: return type Long; getAsLong() used so values > Integer.MAX_VALUE are safe.
+	 * Fetches the /latest endpoint for current spot prices (no volumes).
+	 * Prices are long so values > Integer.MAX_VALUE are safe. The instant-buy
+	 * and instant-sell prices and their trade times are kept alongside the mid
+	 * price for margins.
 	 */
-	private Map<Integer, Long> fetchLatestPrices(String urlStr) throws IOException
+	private PriceColumn fetchLatestPrices(String urlStr) throws IOException
 	{
 		Request request = new Request.Builder()
 				.url(urlStr)
@@ -472,49 +655,66 @@ public class FlippingMastermindsPlugin extends Plugin
 			if (!response.isSuccessful() || response.body() == null)
 				throw new IOException("Failed to fetch latest prices: " + response.code());
 
-			try (InputStreamReader reader = new InputStreamReader(response.body().byteStream()))
+			try (InputStreamReader reader = new InputStreamReader(response.body().byteStream(), StandardCharsets.UTF_8))
 			{
-				// CHANGED: Map value type Integer → Long
-				Map<Integer, Long> map  = new HashMap<>();
-				var root = gson.fromJson(reader, JsonObject.class);
-				var data = root.getAsJsonObject("data");
-
-				for (String key : data.keySet())
-				{
-					try
-					{
-						int id  = Integer.parseInt(key);
-						var obj = data.getAsJsonObject(key);
-						if (obj.has("high") && obj.has("low")
-								&& !obj.get("high").isJsonNull()
-								&& !obj.get("low").isJsonNull())
-						{
-							// CHANGED: getAsLong() — latest prices are integers but can exceed int max
-							long high = obj.get("high").getAsLong();
-							long low  = obj.get("low").getAsLong();
-							map.put(id, (high + low) / 2);
-						}
-					}
-					catch (Exception ignored) {}
-				}
-				return map;
+				PriceColumn.Builder column = new PriceColumn.Builder();
+				WikiPriceParser.parseLatest(reader, (id, high, highTime, low, lowTime) -> {
+					if (high != WikiPriceParser.MISSING && low != WikiPriceParser.MISSING)
+						column.addLatest(id, high, clampToInt(highTime), low, clampToInt(lowTime));
+				});
+				return column.build();
 			}
 		}
 	}
 
+	/** Narrows a parsed count or epoch-second time to an int column entry; missing values become 0. */
+	private static int clampToInt(long value)
+	{
+		return (int) Math.max(0, Math.min(value, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Returns fresh item metadata, or {@code null} if the cached copy is still current.
+	 * On first use the on-disk copy is loaded and pushed to the panel straight away,
+	 * then the dump is requested conditionally on that copy's validators.
+	 */
 	private Map<Integer, ItemMeta> fetchItemMeta(String urlStr) throws IOException
 	{
-		Request request = new Request.Builder()
+		if (itemMeta.isEmpty())
+		{
+			Map<Integer, ItemMeta> cached = itemMetaCache.load();
+			if (cached != null)
+			{
+				itemMeta = cached;
+				SwingUtilities.invokeLater(() -> panel.updateItemMeta(cached));
+			}
+		}
+
+		Request.Builder builder = new Request.Builder()
 				.url(urlStr)
-				.header("User-Agent", USER_AGENT_HEADER)
-				.build();
+				.header("User-Agent", USER_AGENT_HEADER);
 
-		try (Response response = okHttpClient.newCall(request).execute())
+		// Only revalidate if the cached copy is actually loaded in memory
+		if (!itemMeta.isEmpty())
 		{
+			if (!itemMetaCache.getEtag().isEmpty())
+				builder.header("If-None-Match", itemMetaCache.getEtag());
+			if (!itemMetaCache.getLastModified().isEmpty())
+				builder.header("If-Modified-Since", itemMetaCache.getLastModified());
+		}
+
+		try (Response response = okHttpClient.newCall(builder.build()).execute())
+		{
+			if (response.code() == 304 && !itemMeta.isEmpty())
+			{
+				log.debug("Item metadata not modified, using cached copy");
+				return null;
+			}
+
 			if (!response.isSuccessful() || response.body() == null)
 				throw new IOException("Failed to fetch item meta: " + response.code());
 
-			try (InputStreamReader reader = new InputStreamReader(response.body().byteStream()))
+			try (InputStreamReader reader = new InputStreamReader(response.body().byteStream(), StandardCharsets.UTF_8))
 			{
 				Map<Integer, ItemMeta> map  = new HashMap<>();
 				var root = gson.fromJson(reader, JsonObject.class);
@@ -539,6 +739,8 @@ public class FlippingMastermindsPlugin extends Plugin
 					}
 					catch (Exception ignored) {}
 				}
+
+				itemMetaCache.save(map, response.header("ETag"), response.header("Last-Modified"));
 				return map;
 			}
 		}
@@ -560,6 +762,12 @@ public class FlippingMastermindsPlugin extends Plugin
 
 	// ── Inner / static types ──────────────────────────────────────────────────
 
+	@FunctionalInterface
+	private interface IOSupplier<T>
+	{
+		T get() throws IOException;
+	}
+
 	private static class OfferStateCache
 	{
 		int itemId;
@@ -572,22 +780,6 @@ public class FlippingMastermindsPlugin extends Plugin
 		}
 	}
 
-	/**
-	 * Holds both prices and trade volumes returned from one API call.
-	 * CHANGED: Map value type Integer → Long throughout.
-	 */
-	private static class PriceAndVolume
-	{
-		final Map<Integer, Long> prices;
-		final Map<Integer, Long> volume;
-
-		PriceAndVolume(Map<Integer, Long> prices, Map<Integer, Long> volume)
-		{
-			this.prices = prices;
-			this.volume = volume;
-		}
-	}
-
 	public static class ItemMeta
 	{
 		public final int    id;
@@ -0,0 +1,88 @@
+package com.flippingmasterminds;
+
+import net.runelite.api.GrandExchangeOffer;
+import net.runelite.api.GrandExchangeOfferState;
+
+/**
+ * The structural state of the 8 GE slots, kept in primitive arrays and
+ * updated from every offer event, with a version that moves whenever any
+ * slot field does.
+ *
+ * Together with {@link BuyLimitTracker#version()} this tells the send path
+ * that nothing changed since the last upload without reading the offers,
+ * building maps or serialising anything. Updates come from the client
+ * thread only; the version may be read from any thread.
+ */
+final class GeFingerprint
+{
+    static final int SLOTS = 8;
+
+    /** State ordinal of a slot no event has described yet. */
+    private static final int UNKNOWN = -1;
+
+    private final int[] states          = new int[SLOTS];
+    private final int[] itemIds         = new int[SLOTS];
+    private final int[] prices          = new int[SLOTS];
+    private final int[] totalQuantities = new int[SLOTS];
+    private final int[] quantitiesSold  = new int[SLOTS];
+
+    private volatile long version;
+
+    GeFingerprint()
+    {
+        reset();
+    }
+
+    /**
+     * Records the offer now in {@code slot}. Returns whether any field
+     * differs from what the slot held before.
+     */
+    boolean update(int slot, GrandExchangeOffer offer)
+    {
+        if (slot < 0 || slot >= SLOTS) return false;
+
+        GrandExchangeOfferState state = offer == null ? GrandExchangeOfferState.EMPTY : offer.getState();
+        boolean empty = state == GrandExchangeOfferState.EMPTY;
+        int item  = empty ? 0 : offer.getItemId();
+        int price = empty ? 0 : offer.getPrice();
+        int total = empty ? 0 : offer.getTotalQuantity();
+        int sold  = empty ? 0 : offer.getQuantitySold();
+
+        if (states[slot]          == state.ordinal()
+                && itemIds[slot]         == item
+                && prices[slot]          == price
+                && totalQuantities[slot] == total
+                && quantitiesSold[slot]  == sold)
+        {
+            return false;
+        }
+
+        states[slot]          = state.ordinal();
+        itemIds[slot]         = item;
+        prices[slot]          = price;
+        totalQuantities[slot] = total;
+        quantitiesSold[slot]  = sold;
+        version++;
+        return true;
+    }
+
+    /** Forgets every slot, e.g. on logout, so the next state never matches an old one. */
+    void reset()
+    {
+        for (int i = 0; i < SLOTS; i++)
+        {
+            states[i]          = UNKNOWN;
+            itemIds[i]         = 0;
+            prices[i]          = 0;
+            totalQuantities[i] = 0;
+            quantitiesSold[i]  = 0;
+        }
+        version++;
+    }
+
+    /** Moves on every slot change; equal versions mean equal slots. */
+    long version()
+    {
+        return version;
+    }
+}
@@ -0,0 +1,118 @@
+package com.flippingmasterminds;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-disk copy of the newest GE state waiting to be uploaded, one file per
+ * account, so a state the server never received is still delivered after
+ * the client restarts. A file is written whenever a newer state is queued
+ * and deleted once the server has acknowledged it.
+ */
+@Slf4j
+public class GeSpool
+{
+    private static final int    MAGIC     = 0x464D4D51; // "FMMQ"
+    private static final int    VERSION   = 1;
+    private static final String EXTENSION = ".bin";
+
+    /** One spooled upload. */
+    static final class Entry
+    {
+        final GeState state;
+        final String  reason;
+
+        Entry(GeState state, String reason)
+        {
+            this.state  = state;
+            this.reason = reason;
+        }
+    }
+
+    private final File dir;
+
+    public GeSpool(File dir)
+    {
+        this.dir = dir;
+    }
+
+    /** Every readable spooled state; unreadable files are deleted. */
+    public synchronized List<Entry> loadAll()
+    {
+        List<Entry> entries = new ArrayList<>();
+        File[] files = dir.listFiles((d, name) -> name.endsWith(EXTENSION));
+        if (files == null) return entries;
+
+        for (File f : files)
+        {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f))))
+            {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                {
+                    throw new IOException("unknown format");
+                }
+                String reason = in.readUTF();
+                entries.add(new Entry(GeState.readFrom(in), reason));
+            }
+            catch (IOException e)
+            {
+                log.debug("Dropping unreadable GE spool file {}", f.getName(), e);
+                if (!f.delete()) log.debug("Could not delete GE spool file {}", f.getName());
+            }
+        }
+        return entries;
+    }
+
+    /** Stores {@code state} as its account's pending upload, via a temporary file. */
+    public synchronized void save(GeState state, String reason)
+    {
+        File file = fileFor(state.accountHash);
+        File tmp  = new File(dir, file.getName() + ".tmp");
+        try
+        {
+            Files.createDirectories(dir.toPath());
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(reason);
+                state.writeTo(out);
+            }
+
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e)
+        {
+            log.warn("Could not spool GE state", e);
+            tmp.delete();
+        }
+    }
+
+    /** Forgets the pending upload of {@code accountHash}. */
+    public synchronized void delete(long accountHash)
+    {
+        File file = fileFor(accountHash);
+        if (file.exists() && !file.delete())
+        {
+            log.debug("Could not delete GE spool file {}", file.getName());
+        }
+    }
+
+    private File fileFor(long accountHash)
+    {
+        return new File(dir, Long.toUnsignedString(accountHash, 16) + EXTENSION);
+    }
+}
@@ -0,0 +1,240 @@
+package com.flippingmasterminds;
+
+import net.runelite.api.GrandExchangeOffer;
+import net.runelite.api.GrandExchangeOfferState;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The GE data one upload describes: the offer slots and the tracked buy
+ * limits of one account at one moment, in parallel primitive arrays so two
+ * states can be compared field by field. Immutable.
+ */
+public final class GeState
+{
+    final long   accountHash;
+    final String playerName;   // null if the client had not set it yet
+
+    // One entry per GE slot; an empty slot has state EMPTY and zeros elsewhere
+    final GrandExchangeOfferState[] states;
+    final int[] itemIds;
+    final int[] prices;
+    final int[] totalQuantities;
+    final int[] quantitiesSold;
+
+    // Tracked buy limits, ascending by item id
+    final int[]  limitItemIds;
+    final int[]  limitQuantities;
+    final long[] limitFirstBuys;
+
+    // GeFingerprint and BuyLimitTracker versions the state was captured at
+    final long slotVersion;
+    final long limitVersion;
+
+    private GeState(long accountHash, String playerName, GrandExchangeOfferState[] states, int[] itemIds,
+                    int[] prices, int[] totalQuantities, int[] quantitiesSold,
+                    int[] limitItemIds, int[] limitQuantities, long[] limitFirstBuys,
+                    long slotVersion, long limitVersion)
+    {
+        this.accountHash     = accountHash;
+        this.playerName      = playerName;
+        this.states          = states;
+        this.itemIds         = itemIds;
+        this.prices          = prices;
+        this.totalQuantities = totalQuantities;
+        this.quantitiesSold  = quantitiesSold;
+        this.limitItemIds    = limitItemIds;
+        this.limitQuantities = limitQuantities;
+        this.limitFirstBuys  = limitFirstBuys;
+        this.slotVersion     = slotVersion;
+        this.limitVersion    = limitVersion;
+    }
+
+    /**
+     * Copies the client's offers and the tracker's buy limits
+     * ({@link BuyLimitTracker#getAllTracked()}) into a new state, tagged
+     * with the versions they were read at.
+     */
+    static GeState capture(long accountHash, String playerName, GrandExchangeOffer[] offers,
+                           Map<Integer, Map<String, Object>> tracked, long slotVersion, long limitVersion)
+    {
+        int n = offers.length;
+        GrandExchangeOfferState[] states = new GrandExchangeOfferState[n];
+        int[] itemIds         = new int[n];
+        int[] prices          = new int[n];
+        int[] totalQuantities = new int[n];
+        int[] quantitiesSold  = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            GrandExchangeOffer offer = offers[i];
+            if (offer == null || offer.getState() == GrandExchangeOfferState.EMPTY)
+            {
+                states[i] = GrandExchangeOfferState.EMPTY;
+                continue;
+            }
+            states[i]          = offer.getState();
+            itemIds[i]         = offer.getItemId();
+            prices[i]          = offer.getPrice();
+            totalQuantities[i] = offer.getTotalQuantity();
+            quantitiesSold[i]  = offer.getQuantitySold();
+        }
+
+        int[] limitItemIds = new int[tracked.size()];
+        int   k            = 0;
+        for (Integer id : tracked.keySet()) limitItemIds[k++] = id;
+        Arrays.sort(limitItemIds);
+
+        int[]  limitQuantities = new int[limitItemIds.length];
+        long[] limitFirstBuys  = new long[limitItemIds.length];
+        for (int i = 0; i < limitItemIds.length; i++)
+        {
+            Map<String, Object> record = tracked.get(limitItemIds[i]);
+            limitQuantities[i] = ((Number) record.get("quantityBought")).intValue();
+            limitFirstBuys[i]  = ((Number) record.get("firstBuyTimestamp")).longValue();
+        }
+
+        return new GeState(accountHash, playerName, states, itemIds, prices, totalQuantities, quantitiesSold,
+                limitItemIds, limitQuantities, limitFirstBuys, slotVersion, limitVersion);
+    }
+
+    /**
+     * Writes the state for {@link #readFrom}. Versions are not written: they
+     * only mean something within one client session.
+     */
+    void writeTo(DataOutput out) throws IOException
+    {
+        out.writeLong(accountHash);
+        out.writeUTF(playerName != null ? playerName : "");   // writeUTF rejects null
+        out.writeInt(slotCount());
+        for (int i = 0; i < slotCount(); i++)
+        {
+            out.writeUTF(states[i].name());
+            out.writeInt(itemIds[i]);
+            out.writeInt(prices[i]);
+            out.writeInt(totalQuantities[i]);
+            out.writeInt(quantitiesSold[i]);
+        }
+        out.writeInt(limitItemIds.length);
+        for (int i = 0; i < limitItemIds.length; i++)
+        {
+            out.writeInt(limitItemIds[i]);
+            out.writeInt(limitQuantities[i]);
+            out.writeLong(limitFirstBuys[i]);
+        }
+    }
+
+    /**
+     * Reads a state written by {@link #writeTo}. Its versions are -1, which no
+     * live {@link GeFingerprint} or {@link BuyLimitTracker} reports.
+     */
+    static GeState readFrom(DataInput in) throws IOException
+    {
+        long   accountHash = in.readLong();
+        String playerName  = in.readUTF();
+        if (playerName.isEmpty()) playerName = null;
+
+        int n = in.readInt();
+        if (n < 0 || n > GeFingerprint.SLOTS) throw new IOException("Bad slot count " + n);
+        GrandExchangeOfferState[] states = new GrandExchangeOfferState[n];
+        int[] itemIds         = new int[n];
+        int[] prices          = new int[n];
+        int[] totalQuantities = new int[n];
+        int[] quantitiesSold  = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            try
+            {
+                states[i] = GrandExchangeOfferState.valueOf(in.readUTF());
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IOException("Unknown offer state", e);
+            }
+            itemIds[i]         = in.readInt();
+            prices[i]          = in.readInt();
+            totalQuantities[i] = in.readInt();
+            quantitiesSold[i]  = in.readInt();
+        }
+
+        int m = in.readInt();
+        if (m < 0) throw new IOException("Bad buy limit count " + m);
+        int[]  limitItemIds    = new int[m];
+        int[]  limitQuantities = new int[m];
+        long[] limitFirstBuys  = new long[m];
+        for (int i = 0; i < m; i++)
+        {
+            limitItemIds[i]    = in.readInt();
+            limitQuantities[i] = in.readInt();
+            limitFirstBuys[i]  = in.readLong();
+        }
+
+        return new GeState(accountHash, playerName, states, itemIds, prices, totalQuantities, quantitiesSold,
+                limitItemIds, limitQuantities, limitFirstBuys, -1, -1);
+    }
+
+    int slotCount()
+    {
+        return states.length;
+    }
+
+    /** Whether slot {@code slot} holds the same offer in both states. */
+    boolean sameSlot(GeState other, int slot)
+    {
+        return other.slotCount() == slotCount()
+                && states[slot]          == other.states[slot]
+                && itemIds[slot]         == other.itemIds[slot]
+                && prices[slot]          == other.prices[slot]
+                && totalQuantities[slot] == other.totalQuantities[slot]
+                && quantitiesSold[slot]  == other.quantitiesSold[slot];
+    }
+
+    /** Whether every slot and buy limit is the same in both states. */
+    boolean sameAs(GeState other)
+    {
+        if (other.slotCount() != slotCount()) return false;
+        for (int i = 0; i < slotCount(); i++)
+        {
+            if (!sameSlot(other, i)) return false;
+        }
+        return Arrays.equals(limitItemIds, other.limitItemIds)
+                && Arrays.equals(limitQuantities, other.limitQuantities)
+                && Arrays.equals(limitFirstBuys, other.limitFirstBuys);
+    }
+
+    /** Index of {@code itemId} among the buy limits, or a negative value if untracked. */
+    int limitIndexOf(int itemId)
+    {
+        return Arrays.binarySearch(limitItemIds, itemId);
+    }
+
+    /** One slot in the upload format; an empty slot is just its index and state. */
+    Map<String, Object> slotJson(int slot)
+    {
+        Map<String, Object> data = new HashMap<>();
+        data.put("slot", slot);
+        data.put("state", states[slot].toString());
+        if (states[slot] != GrandExchangeOfferState.EMPTY)
+        {
+            data.put("itemId",        itemIds[slot]);
+            data.put("quantitySold",  quantitiesSold[slot]);
+            data.put("totalQuantity", totalQuantities[slot]);
+            data.put("price",         prices[slot]);
+        }
+        return data;
+    }
+
+    /** The buy limit at index {@code i} in the upload format. */
+    Map<String, Object> limitJson(int i)
+    {
+        Map<String, Object> record = new HashMap<>();
+        record.put("itemId",            limitItemIds[i]);
+        record.put("quantityBought",    limitQuantities[i]);
+        record.put("firstBuyTimestamp", limitFirstBuys[i]);
+        return record;
+    }
+}
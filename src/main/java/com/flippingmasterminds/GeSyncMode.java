@@ -0,0 +1,25 @@
+package com.flippingmasterminds;
+
+/** How GE state is uploaded; see {@link GeSyncProtocol}. */
+public enum GeSyncMode
+{
+    /** The whole state on every change, as understood by every server version. */
+    FULL("Full"),
+    /** Only what changed since the last acknowledged upload, with periodic full resyncs. */
+    DELTA("Delta"),
+    /** Delta, gzip-compressed. */
+    DELTA_GZIP("Delta + gzip");
+
+    private final String label;
+
+    GeSyncMode(String label)
+    {
+        this.label = label;
+    }
+
+    @Override
+    public String toString()
+    {
+        return label;
+    }
+}
@@ -0,0 +1,261 @@
+package com.flippingmasterminds;
+
+import com.google.gson.Gson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes GE uploads as deltas against the last state the server
+ * acknowledged, per account.
+ *
+ * Every upload carries a sequence number. A full upload is the complete
+ * document the server has always received, plus {@code "type":"full"} and
+ * {@code "seq"}:
+ * <pre>
+ *   {"type":"full","seq":7,"reason":..,"playerName":..,"accountHash":..,
+ *    "offers":[8 slots],"buyLimits":[every tracked record]}
+ * </pre>
+ * A delta names the upload it applies to and lists only what changed since:
+ * <pre>
+ *   {"type":"delta","seq":8,"baseSeq":7,"reason":..,"playerName":..,"accountHash":..,
+ *    "offers":[changed slots],"buyLimits":[changed records],"expiredBuyLimits":[item ids]}
+ * </pre>
+ * Deltas are always computed against the last <i>acknowledged</i> state, so
+ * a delta that is lost or rejected is covered by the next one. A full upload
+ * is sent first for each account, after {@link #resync()}, after any
+ * rejected upload, and once {@link #FULL_RESYNC_MS} has passed since the last
+ * one. A server that answers a delta with an error (for example because it
+ * missed {@code baseSeq}) therefore gets a full document next.
+ *
+ * In {@link GeSyncMode#FULL} mode every upload is full, which is what older
+ * servers expect; uploads whose state matches the last one sent are skipped
+ * in every mode, except that the first one after {@link #resync()} always
+ * goes out. {@link #upToDate} answers the same question from the
+ * versions a state was captured at, before any state is captured at all.
+ */
+public class GeSyncProtocol
+{
+    static final long FULL_RESYNC_MS = 10 * 60_000L;
+
+    private final Gson gson;
+
+    // Guarded by this
+    private final Map<Long, Account> accounts = new HashMap<>();
+
+    /** Sync position of one account. */
+    private static final class Account
+    {
+        long    nextSeq  = 1;
+        long    ackedSeq = 0;
+        GeState acked;          // last state the server acknowledged
+        GeState pending;        // last state encoded, until it is acknowledged or rejected
+        long    lastFullAt;     // when the last acknowledged full upload was encoded
+        boolean forceFull = true;
+        boolean resyncRequested;   // by resync(), until a full upload is acknowledged
+    }
+
+    /** One encoded upload, ready to post. */
+    static final class Upload
+    {
+        final long    accountHash;
+        final long    seq;
+        final boolean full;
+        final boolean gzip;
+        final byte[]  body;
+        final GeState state;
+        final long    createdAt;
+
+        Upload(long accountHash, long seq, boolean full, boolean gzip, byte[] body, GeState state, long createdAt)
+        {
+            this.accountHash = accountHash;
+            this.seq         = seq;
+            this.full        = full;
+            this.gzip        = gzip;
+            this.body        = body;
+            this.state       = state;
+            this.createdAt   = createdAt;
+        }
+    }
+
+    public GeSyncProtocol(Gson gson)
+    {
+        this.gson = gson;
+    }
+
+    /**
+     * Encodes {@code state} for upload, or returns {@code null} if it matches
+     * what was last sent for its account and no resync is due.
+     */
+    synchronized Upload encode(GeState state, String reason, GeSyncMode mode, long now)
+    {
+        Account account = accounts.computeIfAbsent(state.accountHash, k -> new Account());
+
+        GeState lastSent  = lastSent(account);
+        boolean unchanged = lastSent != null && state.sameAs(lastSent);
+        if (unchanged && !resyncWanted(account, mode, now)) return null;
+
+        boolean full = mode == GeSyncMode.FULL || resyncDue(account, now);
+        long    seq  = account.nextSeq++;
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type",        full ? "full" : "delta");
+        payload.put("seq",         seq);
+        payload.put("reason",      reason);
+        payload.put("playerName",  state.playerName);
+        payload.put("accountHash", state.accountHash);
+        if (full) writeFull(payload, state);
+        else      writeDelta(payload, state, account.acked, account.ackedSeq);
+
+        boolean gzip = mode == GeSyncMode.DELTA_GZIP;
+        byte[]  body = gson.toJson(payload).getBytes(StandardCharsets.UTF_8);
+        if (gzip) body = gzip(body);
+
+        account.pending = state;
+        return new Upload(state.accountHash, seq, full, gzip, body, state, now);
+    }
+
+    /**
+     * Whether a state captured at these versions would be skipped by
+     * {@link #encode}: the last state sent for the account was captured at
+     * the same versions and no resync is due. Allocates nothing.
+     */
+    synchronized boolean upToDate(long accountHash, long slotVersion, long limitVersion, GeSyncMode mode, long now)
+    {
+        Account account = accounts.get(accountHash);
+        if (account == null) return false;
+
+        GeState lastSent = lastSent(account);
+        return lastSent != null
+                && lastSent.slotVersion  == slotVersion
+                && lastSent.limitVersion == limitVersion
+                && !resyncWanted(account, mode, now);
+    }
+
+    /** The server accepted {@code upload}; later deltas are computed against its state. */
+    synchronized void acknowledge(Upload upload)
+    {
+        Account account = accounts.get(upload.accountHash);
+        if (account == null || upload.seq <= account.ackedSeq) return;
+
+        account.acked    = upload.state;
+        account.ackedSeq = upload.seq;
+        if (account.pending == upload.state) account.pending = null;
+        if (upload.full)
+        {
+            account.lastFullAt      = upload.createdAt;
+            account.forceFull       = false;
+            account.resyncRequested = false;
+        }
+    }
+
+    /** {@code upload} failed or was refused; the next upload for its account is full. */
+    synchronized void reject(Upload upload)
+    {
+        Account account = accounts.get(upload.accountHash);
+        if (account == null) return;
+
+        account.forceFull = true;
+        account.pending   = null;
+    }
+
+    /**
+     * Makes the next upload of every account a full one, e.g. after logging
+     * in, and sends it even if the state has not changed, in every mode.
+     */
+    synchronized void resync()
+    {
+        for (Account account : accounts.values())
+        {
+            account.forceFull       = true;
+            account.resyncRequested = true;
+            account.pending         = null;
+        }
+    }
+
+    private static GeState lastSent(Account account)
+    {
+        return account.pending != null ? account.pending : account.acked;
+    }
+
+    private static boolean resyncDue(Account account, long now)
+    {
+        return account.acked == null || account.forceFull || now - account.lastFullAt >= FULL_RESYNC_MS;
+    }
+
+    /**
+     * Whether an unchanged state still goes out as a resync: none is already
+     * in flight, and one was requested or, outside FULL mode (where every
+     * upload is already whole), one is due.
+     */
+    private static boolean resyncWanted(Account account, GeSyncMode mode, long now)
+    {
+        return account.pending == null
+                && (account.resyncRequested || (mode != GeSyncMode.FULL && resyncDue(account, now)));
+    }
+
+    private static void writeFull(Map<String, Object> payload, GeState state)
+    {
+        List<Map<String, Object>> offers = new ArrayList<>(state.slotCount());
+        for (int i = 0; i < state.slotCount(); i++) offers.add(state.slotJson(i));
+
+        List<Map<String, Object>> limits = new ArrayList<>(state.limitItemIds.length);
+        for (int i = 0; i < state.limitItemIds.length; i++) limits.add(state.limitJson(i));
+
+        payload.put("offers",    offers);
+        payload.put("buyLimits", limits);
+    }
+
+    private static void writeDelta(Map<String, Object> payload, GeState state, GeState base, long baseSeq)
+    {
+        List<Map<String, Object>> offers = new ArrayList<>();
+        for (int i = 0; i < state.slotCount(); i++)
+        {
+            if (!state.sameSlot(base, i)) offers.add(state.slotJson(i));
+        }
+
+        List<Map<String, Object>> limits = new ArrayList<>();
+        for (int i = 0; i < state.limitItemIds.length; i++)
+        {
+            int b = base.limitIndexOf(state.limitItemIds[i]);
+            if (b < 0
+                    || base.limitQuantities[b] != state.limitQuantities[i]
+                    || base.limitFirstBuys[b]  != state.limitFirstBuys[i])
+            {
+                limits.add(state.limitJson(i));
+            }
+        }
+
+        List<Integer> expired = new ArrayList<>();
+        for (int id : base.limitItemIds)
+        {
+            if (state.limitIndexOf(id) < 0) expired.add(id);
+        }
+
+        payload.put("baseSeq",          baseSeq);
+        payload.put("offers",           offers);
+        payload.put("buyLimits",        limits);
+        payload.put("expiredBuyLimits", expired);
+    }
+
+    private static byte[] gzip(byte[] raw)
+    {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(raw.length / 4 + 64);
+        try (OutputStream out = new GZIPOutputStream(buf))
+        {
+            out.write(raw);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("gzip to memory failed", e);
+        }
+        return buf.toByteArray();
+    }
+}
@@ -0,0 +1,41 @@
+package com.flippingmasterminds;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the GE upload pipeline, from offer events in to HTTP requests
+ * out, so the effect of batching, coalescing and rate limiting can be read
+ * from the log.
+ */
+final class GeUploadMetrics
+{
+    /** Upload requests from offer events and logins. */
+    final AtomicLong events      = new AtomicLong();
+    /** Batches closed; each reads the GE state once. */
+    final AtomicLong flushes     = new AtomicLong();
+    /** Flushes that found nothing new to upload. */
+    final AtomicLong unchanged   = new AtomicLong();
+    /** Queued states replaced by a newer one before they were sent. */
+    final AtomicLong superseded  = new AtomicLong();
+    /** Uploads held back by an account's rate limit. */
+    final AtomicLong rateLimited = new AtomicLong();
+    /** HTTP requests sent. */
+    final AtomicLong requests    = new AtomicLong();
+    /** HTTP requests that failed and will be retried. */
+    final AtomicLong failures    = new AtomicLong();
+    /** HTTP requests refused with a client error that retrying cannot fix. */
+    final AtomicLong refused     = new AtomicLong();
+
+    @Override
+    public String toString()
+    {
+        return "events=" + events
+                + " flushes=" + flushes
+                + " unchanged=" + unchanged
+                + " superseded=" + superseded
+                + " rateLimited=" + rateLimited
+                + " requests=" + requests
+                + " failures=" + failures
+                + " refused=" + refused;
+    }
+}
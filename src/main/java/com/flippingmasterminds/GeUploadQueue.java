@@ -0,0 +1,409 @@
+package com.flippingmasterminds;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outbound pipeline for GE uploads.
+ *
+ * Each account has one lane holding at most one queued state: submitting a
+ * newer state replaces the queued one, since only the newest matters. A
+ * state is encoded by {@link GeSyncProtocol} only when it is dequeued, so a
+ * delta is always computed against what the server last acknowledged, and
+ * at most one upload per account is in flight. At most
+ * {@link #MAX_ACCOUNTS} lanes exist; a new account evicts the oldest idle one.
+ *
+ * Each lane also has a token bucket: up to {@link #BURST} uploads at once,
+ * then one per {@link #REFILL_MS}. A state that arrives while the bucket is
+ * empty waits in the lane, where newer states keep replacing it.
+ *
+ * A failed upload goes back into its lane unless a newer state has arrived,
+ * and the lane waits with exponential backoff and jitter before it is tried
+ * again. A refusal that retrying cannot fix (a 4xx other than 408 and 429,
+ * such as a revoked token) parks the lane instead: nothing is sent for it
+ * until a newer state is submitted or {@link #unparkAll()} is called after
+ * the API token changes. Queued states are spooled to disk via {@link GeSpool} and reloaded
+ * by {@link #start()}, so they survive a client restart.
+ *
+ * All lane bookkeeping happens on the given scheduler thread.
+ */
+@Slf4j
+public class GeUploadQueue
+{
+    static final int  MAX_ACCOUNTS     = 8;
+    static final long BACKOFF_BASE_MS  = 1_000;
+    static final long BACKOFF_MAX_MS   = 5 * 60_000L;
+    static final int  BURST            = 4;
+    static final long REFILL_MS        = 5_000;
+
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
+
+    private final OkHttpClient              http;
+    private final ScheduledExecutorService  scheduler;
+    private final GeSyncProtocol            sync;
+    private final GeSpool                   spool;
+    private final FlippingMastermindsConfig config;
+    private final String                    url;
+    private final GeUploadMetrics           metrics;
+
+    // Insertion-ordered so the oldest lane is evicted first
+    private final Map<Long, Lane> lanes = new LinkedHashMap<>();
+    // Calls awaiting a response, so stop() can cancel them without touching the shared client
+    private final Set<Call> calls = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    // The one pending drain wake-up, for backoff and rate limits
+    private ScheduledFuture<?> wake;
+    private long               wakeAt;
+
+    /** Upload state of one account. */
+    private static final class Lane
+    {
+        GeState queued;        // newest state not yet handed to the protocol
+        String  reason;
+        GeState inFlight;      // state of the upload awaiting a response
+        String  inFlightReason;
+        int     failures;      // consecutive failed uploads
+        long    retryAt;       // no upload before this time
+        boolean parked;        // refused for good; waits for a newer state or token
+        int     tokens = BURST;
+        long    refilledAt;    // when the last token was added
+
+        boolean idle()
+        {
+            return queued == null && inFlight == null;
+        }
+
+        /** Adds the tokens earned since the last refill and returns how many there are. */
+        int tokens(long now)
+        {
+            long earned = (now - refilledAt) / REFILL_MS;
+            if (earned > 0)
+            {
+                tokens     = (int) Math.min(BURST, tokens + earned);
+                refilledAt = tokens == BURST ? now : refilledAt + earned * REFILL_MS;
+            }
+            return tokens;
+        }
+    }
+
+    public GeUploadQueue(OkHttpClient http, ScheduledExecutorService scheduler, GeSyncProtocol sync,
+                         GeSpool spool, FlippingMastermindsConfig config, String url, GeUploadMetrics metrics)
+    {
+        this.http      = http;
+        this.scheduler = scheduler;
+        this.sync      = sync;
+        this.spool     = spool;
+        this.config    = config;
+        this.url       = url;
+        this.metrics   = metrics;
+    }
+
+    /** Requeues whatever the spool holds from an earlier session and starts sending it. */
+    public void start()
+    {
+        post(() ->
+        {
+            for (GeSpool.Entry entry : spool.loadAll())
+            {
+                Lane lane = laneFor(entry.state.accountHash);
+                lane.queued = entry.state;
+                lane.reason = entry.reason;
+            }
+            drain();
+        });
+    }
+
+    /**
+     * Stops sending and cancels the uploads in flight. Queued and unacknowledged
+     * states stay in the spool for the next start.
+     */
+    public void stop()
+    {
+        closed = true;
+        for (Call call : calls) call.cancel();
+        calls.clear();
+    }
+
+    /**
+     * Whether a state captured at these versions is already queued, in
+     * flight or acknowledged for its account, so capturing it again would
+     * achieve nothing. Allocates nothing; call on the scheduler thread.
+     */
+    boolean upToDate(long accountHash, long slotVersion, long limitVersion, GeSyncMode mode, long now)
+    {
+        Lane lane = lanes.get(accountHash);
+        if (lane != null && lane.queued != null)
+        {
+            return lane.queued.slotVersion == slotVersion && lane.queued.limitVersion == limitVersion;
+        }
+        return sync.upToDate(accountHash, slotVersion, limitVersion, mode, now);
+    }
+
+    /** Queues {@code state} in place of any older state of its account; call on the scheduler thread. */
+    void submit(GeState state, String reason)
+    {
+        if (closed) return;
+
+        Lane lane = laneFor(state.accountHash);
+        if (lane.queued != null) metrics.superseded.incrementAndGet();
+        lane.queued = state;
+        lane.reason = reason;
+        lane.parked = false;
+        spool.save(state, reason);
+        drain();
+    }
+
+    /** Retries every parked lane, e.g. once the API token has changed. */
+    public void unparkAll()
+    {
+        post(() ->
+        {
+            for (Lane lane : lanes.values()) lane.parked = false;
+            drain();
+        });
+    }
+
+    /** Starts an upload on every lane that has a state queued, nothing in flight and no backoff pending. */
+    private void drain()
+    {
+        if (closed || config.apiToken().isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Lane> e : lanes.entrySet())
+        {
+            Lane lane = e.getValue();
+            if (lane.queued == null || lane.inFlight != null || lane.parked) continue;
+            if (now < lane.retryAt)
+            {
+                wakeAt(lane.retryAt);
+                continue;
+            }
+            if (lane.tokens(now) == 0)
+            {
+                metrics.rateLimited.incrementAndGet();
+                wakeAt(lane.refilledAt + REFILL_MS);
+                continue;
+            }
+
+            GeState state  = lane.queued;
+            String  reason = lane.reason;
+            lane.queued = null;
+
+            GeSyncProtocol.Upload upload = sync.encode(state, reason, config.geSyncMode(), now);
+            if (upload == null)
+            {
+                // The server already has this state
+                spool.delete(e.getKey());
+                continue;
+            }
+
+            lane.tokens--;
+            lane.inFlight       = state;
+            lane.inFlightReason = reason;
+            send(upload, reason);
+        }
+    }
+
+    private void send(GeSyncProtocol.Upload upload, String reason)
+    {
+        RequestBody     body    = RequestBody.create(JSON_MEDIA_TYPE, upload.body);
+        Request.Builder builder = new Request.Builder()
+                .url(url)
+                .post(body)
+                .addHeader("Authorization", "Bearer " + config.apiToken());
+        if (upload.gzip) builder.addHeader("Content-Encoding", "gzip");
+
+        Call call = http.newCall(builder.build());
+        calls.add(call);
+        metrics.requests.incrementAndGet();
+        call.enqueue(new Callback()
+        {
+            @Override
+            public void onFailure(Call call, IOException e)
+            {
+                calls.remove(call);
+                if (closed) return;
+                log.warn("❌ Failed to send GE data ({}): {}", reason, e.toString());
+                post(() -> completed(upload, -1));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException
+            {
+                calls.remove(call);
+                int     code = response.code();
+                boolean ok   = response.isSuccessful();
+                try
+                {
+                    String resp = response.body() != null ? response.body().string() : "";
+                    if (ok)
+                    {
+                        log.info("✅ GE data sent ({}, {} #{}, {} bytes) for {} | Response {}: {}", reason,
+                                upload.full ? "full" : "delta", upload.seq, upload.body.length,
+                                upload.state.playerName, code, resp);
+                    }
+                    else
+                    {
+                        log.warn("❌ GE data refused ({}, {} #{}) | Response {}: {}", reason,
+                                upload.full ? "full" : "delta", upload.seq, code, resp);
+                    }
+                }
+                finally
+                {
+                    response.close();
+                    post(() -> completed(upload, code));
+                }
+            }
+        });
+    }
+
+    /** Handles the response to {@code upload}: its HTTP status, or -1 if no response arrived. */
+    private void completed(GeSyncProtocol.Upload upload, int code)
+    {
+        boolean ok = code >= 200 && code < 300;
+        Lane lane = lanes.get(upload.accountHash);
+        if (ok) sync.acknowledge(upload);
+        else    sync.reject(upload);
+        if (lane == null) return;
+
+        if (ok)
+        {
+            lane.failures = 0;
+            lane.retryAt  = 0;
+            if (lane.queued == null) spool.delete(upload.accountHash);
+        }
+        else if (!retryable(code))
+        {
+            // Sending this state again would be refused the same way; a newer one is still sent
+            if (lane.queued == null)
+            {
+                lane.queued = lane.inFlight;
+                lane.reason = lane.inFlightReason;
+                lane.parked = true;
+            }
+            metrics.refused.incrementAndGet();
+            log.warn("GE upload refused with {}, not retrying until the GE state or API token changes", code);
+        }
+        else
+        {
+            // A newer state covers this one; otherwise try this one again
+            if (lane.queued == null)
+            {
+                lane.queued = lane.inFlight;
+                lane.reason = lane.inFlightReason;
+            }
+            metrics.failures.incrementAndGet();
+            lane.failures++;
+            long delay = backoff(lane.failures);
+            lane.retryAt = System.currentTimeMillis() + delay;
+            log.debug("Retrying GE upload in {} ms (attempt {})", delay, lane.failures + 1);
+        }
+        lane.inFlight       = null;
+        lane.inFlightReason = null;
+        drain();
+    }
+
+    /**
+     * Whether an upload that got {@code code} (-1 without a response) may
+     * succeed if sent again: network errors, 5xx, 408 Request Timeout and
+     * 429 Too Many Requests. Any other 4xx would be refused the same way.
+     */
+    static boolean retryable(int code)
+    {
+        return code < 400 || code >= 500 || code == 408 || code == 429;
+    }
+
+    /** Delay before retry number {@code failures}: doubling from the base up to the cap, then 50-100% of that. */
+    static long backoff(int failures)
+    {
+        int  shift = Math.min(failures - 1, 20);
+        long ceil  = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << shift);
+        return ceil / 2 + ThreadLocalRandom.current().nextLong(ceil / 2 + 1);
+    }
+
+    private Lane laneFor(long accountHash)
+    {
+        Lane lane = lanes.get(accountHash);
+        if (lane != null) return lane;
+
+        if (lanes.size() >= MAX_ACCOUNTS && !evict(true) && !evict(false))
+        {
+            log.warn("GE upload queue full with every account in flight");
+        }
+
+        lane = new Lane();
+        lanes.put(accountHash, lane);
+        return lane;
+    }
+
+    /** Removes the oldest idle lane, or with {@code idleOnly} unset the oldest one not in flight. */
+    private boolean evict(boolean idleOnly)
+    {
+        Iterator<Map.Entry<Long, Lane>> it = lanes.entrySet().iterator();
+        while (it.hasNext())
+        {
+            Map.Entry<Long, Lane> eldest = it.next();
+            Lane lane = eldest.getValue();
+            if (idleOnly ? !lane.idle() : lane.inFlight != null) continue;
+
+            if (!lane.idle()) log.warn("GE upload queue full, dropping the queued state of another account");
+            it.remove();
+            spool.delete(eldest.getKey());
+            return true;
+        }
+        return false;
+    }
+
+    /** Makes sure a drain runs no later than {@code at}; an earlier pending wake-up already covers it. */
+    private void wakeAt(long at)
+    {
+        if (closed) return;
+        if (wake != null && !wake.isDone() && wakeAt <= at) return;
+        try
+        {
+            long delay = Math.max(0, at - System.currentTimeMillis());
+            wakeAt = at;
+            wake   = scheduler.schedule(() ->
+            {
+                wake = null;
+                drain();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.debug("GE upload scheduler stopped, retry left in the spool");
+        }
+    }
+
+    private void post(Runnable task)
+    {
+        if (closed) return;
+        try
+        {
+            scheduler.execute(task);
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.debug("GE upload scheduler stopped");
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.flippingmasterminds;
+
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.GrandExchangeOffer;
+import net.runelite.api.Player;
+import okhttp3.OkHttpClient;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GE upload subsystem: the only code that reads GE state for upload,
+ * builds payloads and posts them.
+ *
+ * The plugin reports each offer event with {@link #offerChanged} and asks
+ * for an upload with {@link #requestSend}. Requests are paced adaptively:
+ * <ul>
+ *   <li>the first request after {@link #QUIET_MS} without any is sent at
+ *       once (leading edge), so a single change is never delayed;</li>
+ *   <li>requests that follow it are coalesced and sent once
+ *       {@link #QUIET_MS} pass without another (trailing edge), so a burst
+ *       such as collecting every offer becomes one more upload;</li>
+ *   <li>a burst that never pauses is still sent {@link #MAX_LATENCY_MS}
+ *       after its first unsent request.</li>
+ * </ul>
+ * {@link GeUploadQueue} then rate-limits each account with a token bucket.
+ * One timer serves the pacing; events only move its deadline, and the
+ * timer re-arms itself if it fires before the deadline.
+ *
+ * Each upload reads the state once. From there a state goes through
+ * {@link GeFingerprint} (skip if unchanged), {@link GeState#capture},
+ * {@link GeUploadQueue} (coalescing, retries, spool) and
+ * {@link GeSyncProtocol} (full or delta payload).
+ *
+ * Uploads use the shared {@link OkHttpClient}, so they reuse its pooled
+ * connections, and the uploader owns one daemon thread for its own
+ * bookkeeping. {@link #shutdown()} stops that thread and cancels only this
+ * uploader's calls; the shared client's dispatcher and pool are left alone.
+ */
+@Slf4j
+public class GeUploader
+{
+    static final long QUIET_MS       = 200;
+    static final long MAX_LATENCY_MS = 2_000;
+
+    // Right after login the local player and its name may not be set yet
+    private static final long NAME_RETRY_MS = 600;   // one game tick
+    private static final int  NAME_RETRIES  = 50;
+
+    private static final String TARGET_URL = "http://api.flippingmasterminds.net/ge";
+
+    private final Client                    client;
+    private final BuyLimitTracker           buyLimitTracker;
+    private final FlippingMastermindsConfig config;
+    private final GeFingerprint             fingerprint = new GeFingerprint();
+    private final GeSyncProtocol            sync;
+    private final GeUploadQueue             queue;
+    private final ScheduledExecutorService  thread;
+    private final GeUploadMetrics           metrics = new GeUploadMetrics();
+
+    // Touched on the uploader thread only
+    private ScheduledFuture<?> timer;
+    private long               lastRequestAt = Long.MIN_VALUE / 2;
+    private long               pendingSince  = -1;   // first unsent request, or -1 if none
+    private String             pendingReason;
+
+    public GeUploader(Client client, BuyLimitTracker buyLimitTracker, FlippingMastermindsConfig config,
+                      OkHttpClient http, Gson gson, File spoolDir)
+    {
+        this.client          = client;
+        this.buyLimitTracker = buyLimitTracker;
+        this.config          = config;
+        this.thread          = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fmm-ge-upload");
+            t.setDaemon(true);
+            return t;
+        });
+        this.sync  = new GeSyncProtocol(gson);
+        this.queue = new GeUploadQueue(http, thread, sync, new GeSpool(spoolDir), config, TARGET_URL, metrics);
+    }
+
+    /** Resumes uploads left in the spool by an earlier session. */
+    public void start()
+    {
+        queue.start();
+    }
+
+    /** Stops uploading. Anything not yet acknowledged stays in the spool. */
+    public void shutdown()
+    {
+        queue.stop();
+        thread.shutdownNow();
+        log.info("GE uploads this session: {}", metrics);
+    }
+
+    /** Records an offer event; call for every event, on the client thread. Returns whether the slot changed. */
+    public boolean offerChanged(int slot, GrandExchangeOffer offer)
+    {
+        return fingerprint.update(slot, offer);
+    }
+
+    /** The account logged in: the server may have lost track of it, so the next upload is full. */
+    public void loggedIn()
+    {
+        sync.resync();
+    }
+
+    /** The account logged out: its slots are no longer known. */
+    public void loggedOut()
+    {
+        fingerprint.reset();
+    }
+
+    /** The API token changed: uploads the server refused may be accepted now. */
+    public void tokenChanged()
+    {
+        queue.unparkAll();
+    }
+
+    /** Uploads the current state now, or with the burst this request belongs to. */
+    public void requestSend(String reason)
+    {
+        metrics.events.incrementAndGet();
+        execute(() ->
+        {
+            long    now   = System.currentTimeMillis();
+            boolean quiet = now - lastRequestAt >= QUIET_MS;
+            lastRequestAt = now;
+            pendingReason = reason;
+
+            if (pendingSince < 0)
+            {
+                if (quiet)
+                {
+                    flush();
+                    return;
+                }
+                pendingSince = now;
+            }
+            arm(dueAt());
+        });
+    }
+
+    /** Uploads the current state after {@code delayMs}, outside any batch, e.g. once a login settles. */
+    public void requestSendAfter(String reason, long delayMs)
+    {
+        metrics.events.incrementAndGet();
+        try
+        {
+            thread.schedule(() -> send(reason), delayMs, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.debug("GE uploader stopped, not scheduling {}", reason);
+        }
+    }
+
+    /** When the pending burst is sent: after a quiet gap, or at the latency cap. */
+    private long dueAt()
+    {
+        return Math.min(lastRequestAt + QUIET_MS, pendingSince + MAX_LATENCY_MS);
+    }
+
+    /** Makes sure the timer fires no later than {@code at}; it re-checks the deadline when it does. */
+    private void arm(long at)
+    {
+        if (timer != null && !timer.isDone()) return;
+        long delay = Math.max(0, at - System.currentTimeMillis());
+        timer = thread.schedule(this::onTimer, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void onTimer()
+    {
+        timer = null;
+        if (pendingSince < 0) return;
+
+        long due = dueAt();
+        if (System.currentTimeMillis() >= due) flush();
+        else                                    arm(due);
+    }
+
+    private void flush()
+    {
+        pendingSince = -1;
+        send(pendingReason);
+        log.debug("GE upload pacing: {}", metrics);
+    }
+
+    private void send(String reason)
+    {
+        metrics.flushes.incrementAndGet();
+        send(reason, 0);
+    }
+
+    /**
+     * Captures and submits the current state. Without a player name yet it
+     * tries again a tick later, for as long as the client stays logged in.
+     */
+    private void send(String reason, int attempt)
+    {
+        if (client == null || client.getGrandExchangeOffers() == null)
+        {
+            log.debug("GE upload: client not ready, skipping");
+            return;
+        }
+
+        Player player     = client.getLocalPlayer();
+        String playerName = player != null ? player.getName() : null;
+        if (playerName == null)
+        {
+            if (attempt >= NAME_RETRIES || client.getGameState() != GameState.LOGGED_IN)
+            {
+                log.debug("GE upload: no player name, skipping");
+                return;
+            }
+            try
+            {
+                thread.schedule(() -> send(reason, attempt + 1), NAME_RETRY_MS, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException e)
+            {
+                log.debug("GE uploader stopped, not retrying {}", reason);
+            }
+            return;
+        }
+
+        // Versions are read before the data, so a change racing the capture is sent next time
+        long       accountHash  = client.getAccountHash();
+        long       slotVersion  = fingerprint.version();
+        long       limitVersion = buyLimitTracker.version();
+        GeSyncMode mode         = config.geSyncMode();
+        if (queue.upToDate(accountHash, slotVersion, limitVersion, mode, System.currentTimeMillis()))
+        {
+            metrics.unchanged.incrementAndGet();
+            return;
+        }
+
+        GeState state = GeState.capture(accountHash, playerName, client.getGrandExchangeOffers(),
+                buyLimitTracker.getAllTracked(), slotVersion, limitVersion);
+        queue.submit(state, reason);
+    }
+
+    private void execute(Runnable task)
+    {
+        try
+        {
+            thread.execute(task);
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.debug("GE uploader stopped");
+        }
+    }
+}
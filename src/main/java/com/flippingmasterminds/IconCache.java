@@ -0,0 +1,129 @@
+package com.flippingmasterminds;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Two-level cache of item icons, already scaled to the row icon size.
+ *
+ * The memory tier is an access-ordered LRU with a fixed number of entries, so
+ * heap use stays flat however many rows the user scrolls through. The disk
+ * tier keeps one small PNG per item under the RuneLite directory, so icons
+ * appear without any download after the first run. Scaling happens once,
+ * when an icon first enters the cache, never at paint time.
+ */
+@Slf4j
+public class IconCache
+{
+    /** ~25 pages of rows; a 32px ARGB icon is 4 KB, so this caps the tier at ~2 MB. */
+    private static final int MEMORY_ENTRIES = 500;
+
+    private final File dir;
+    private final int  size;
+
+    private final Map<Integer, ImageIcon> memory =
+            new LinkedHashMap<Integer, ImageIcon>(MEMORY_ENTRIES * 4 / 3 + 1, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, ImageIcon> eldest)
+                {
+                    return size() > MEMORY_ENTRIES;
+                }
+            };
+
+    public IconCache(File dir, int size)
+    {
+        this.dir  = dir;
+        this.size = size;
+    }
+
+    /** Memory tier only; cheap enough to call from the renderer on the EDT. */
+    public synchronized ImageIcon get(int itemId)
+    {
+        return memory.get(itemId);
+    }
+
+    /**
+     * Promotes an icon from the disk tier into memory. Returns {@code null} if
+     * it has never been stored. Does file I/O, so call it off the EDT.
+     */
+    public ImageIcon loadFromDisk(int itemId)
+    {
+        File file = fileFor(itemId);
+        if (!file.isFile()) return null;
+
+        try
+        {
+            BufferedImage img = ImageIO.read(file);
+            if (img == null) return null;
+
+            ImageIcon icon = new ImageIcon(img);
+            synchronized (this)
+            {
+                memory.put(itemId, icon);
+            }
+            return icon;
+        }
+        catch (IOException e)
+        {
+            log.debug("Unreadable cached icon for item {}, it will be re-downloaded", itemId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Scales a freshly downloaded image once, stores it in both tiers and
+     * returns the memory-tier icon. Call off the EDT.
+     */
+    public ImageIcon store(int itemId, BufferedImage raw)
+    {
+        BufferedImage scaled = scale(raw);
+        ImageIcon     icon   = new ImageIcon(scaled);
+        synchronized (this)
+        {
+            memory.put(itemId, icon);
+        }
+
+        File file = fileFor(itemId);
+        File tmp  = new File(dir, itemId + ".png.tmp");
+        try
+        {
+            Files.createDirectories(dir.toPath());
+            ImageIO.write(scaled, "png", tmp);
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e)
+        {
+            log.debug("Could not persist icon for item {}", itemId, e);
+            tmp.delete();
+        }
+        return icon;
+    }
+
+    private BufferedImage scale(BufferedImage raw)
+    {
+        BufferedImage out = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = out.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING,     RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(raw, 0, 0, size, size, null);
+        g.dispose();
+        return out;
+    }
+
+    private File fileFor(int itemId)
+    {
+        return new File(dir, itemId + ".png");
+    }
+}
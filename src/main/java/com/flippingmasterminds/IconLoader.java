@@ -0,0 +1,229 @@
+package com.flippingmasterminds;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Downloads item icons into an {@link IconCache}.
+ *
+ * Requests go through a client derived from RuneLite's shared OkHttpClient,
+ * so they reuse its connection pool (keep-alive, HTTP/2 to the wiki) and get
+ * a call timeout and a small HTTP disk cache of their own.
+ *
+ * Work is scheduled by priority rather than first come, first served: each
+ * {@link #prefetch} call replaces the whole queue with the rows the panel
+ * wants next, most important first. Loads that were queued for a previous
+ * page or filter result are dropped before they reach the network, and an
+ * item that is already downloading is never queued a second time. An item
+ * whose download failed (404, timeout, unreadable image) is not queued again
+ * until {@link #FAILURE_TTL_MS} has passed.
+ */
+@Slf4j
+public class IconLoader
+{
+    private static final long HTTP_CACHE_BYTES  = 10L * 1024 * 1024;
+    private static final long CALL_TIMEOUT_SECS = 15;
+    private static final int  THREADS           = 3;
+    static final long         FAILURE_TTL_MS    = 10 * 60_000L;
+
+    private final IconCache    iconCache;
+    private final Cache        httpCache;
+    private final OkHttpClient client;
+    private final ExecutorService worker;
+    private final LongSupplier    clock;
+
+    // Guarded by itself
+    private final ArrayDeque<ItemRow> queue       = new ArrayDeque<>();
+    private final Set<Integer>        queued      = new HashSet<>();
+    private final Set<Integer>        running     = new HashSet<>();
+    private final Map<Integer, Long>  failedUntil = new HashMap<>();   // item id -> when it may be retried
+
+    private volatile IntConsumer onLoaded = id -> { };
+
+    public IconLoader(OkHttpClient sharedClient, IconCache iconCache, File httpCacheDir)
+    {
+        this(sharedClient, iconCache, httpCacheDir, THREADS, System::currentTimeMillis);
+    }
+
+    /** With {@code threads} download threads and {@code clock} timing the failure TTL; for tests. */
+    IconLoader(OkHttpClient sharedClient, IconCache iconCache, File httpCacheDir, int threads, LongSupplier clock)
+    {
+        this.iconCache = iconCache;
+        this.clock     = clock;
+        this.httpCache = new Cache(httpCacheDir, HTTP_CACHE_BYTES);
+        // newBuilder() shares the dispatcher and connection pool with the rest of RuneLite
+        this.client = sharedClient.newBuilder()
+                .cache(httpCache)
+                .callTimeout(CALL_TIMEOUT_SECS, TimeUnit.SECONDS)
+                .build();
+        this.worker = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "ge-panel-image-loader");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < threads; i++) worker.execute(this::drain);
+    }
+
+    /** Called off the EDT with the item id whenever an icon lands in the memory tier. */
+    public void setOnLoaded(IntConsumer onLoaded)
+    {
+        this.onLoaded = onLoaded;
+    }
+
+    /** Memory tier only; cheap enough to call from the renderer on the EDT. */
+    public ImageIcon getCached(int itemId)
+    {
+        return iconCache.get(itemId);
+    }
+
+    /**
+     * Replaces everything still waiting in the queue with {@code rows}, in
+     * the given priority order. Rows that are already cached, downloading,
+     * recently failed or have no icon URL are skipped.
+     */
+    public void prefetch(List<ItemRow> rows)
+    {
+        long now = clock.getAsLong();
+        synchronized (queue)
+        {
+            queue.clear();
+            queued.clear();
+            for (ItemRow r : rows)
+            {
+                if (r.iconUrl == null || r.iconUrl.isEmpty())         continue;
+                if (running.contains(r.id) || queued.contains(r.id))  continue;
+                if (recentlyFailed(r.id, now))                        continue;
+                if (iconCache.get(r.id) != null)                      continue;
+                queued.add(r.id);
+                queue.addLast(r);
+            }
+            queue.notifyAll();
+        }
+    }
+
+    public void shutdown()
+    {
+        worker.shutdownNow();
+        try
+        {
+            // Only our own cache is closed; the shared client is left untouched
+            httpCache.close();
+        }
+        catch (IOException ignored) { }
+    }
+
+    /** Worker loop: takes the highest-priority row still wanted and loads it. */
+    private void drain()
+    {
+        try
+        {
+            while (true)
+            {
+                ItemRow next;
+                synchronized (queue)
+                {
+                    while (queue.isEmpty()) queue.wait();
+                    next = queue.pollFirst();
+                    queued.remove(next.id);
+                    running.add(next.id);
+                }
+
+                boolean failed = false;
+                try
+                {
+                    if (iconCache.get(next.id) == null) failed = !load(next.id, next.iconUrl);
+                }
+                finally
+                {
+                    synchronized (queue)
+                    {
+                        running.remove(next.id);
+                        if (failed) failedUntil.put(next.id, clock.getAsLong() + FAILURE_TTL_MS);
+                    }
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            // Shut down
+        }
+    }
+
+    /** Caller holds the queue lock. Forgets failures whose TTL has run out. */
+    private boolean recentlyFailed(int itemId, long now)
+    {
+        Long until = failedUntil.get(itemId);
+        if (until == null) return false;
+        if (now < until)   return true;
+        failedUntil.remove(itemId);
+        return false;
+    }
+
+    /** Loads one icon from disk or the network; returns false if it could not be had. */
+    private boolean load(int itemId, String rawIconUrl)
+    {
+        if (iconCache.loadFromDisk(itemId) == null)
+        {
+            String url = rawIconUrl.startsWith("http") ? rawIconUrl : sanitizeIconUrl(rawIconUrl);
+            Request request = new Request.Builder()
+                    .url(url)
+                    .header("User-Agent", FlippingMastermindsPlugin.USER_AGENT_HEADER)
+                    .build();
+
+            try (Response response = client.newCall(request).execute())
+            {
+                if (!response.isSuccessful() || response.body() == null)
+                {
+                    log.debug("Icon download for item {} answered {}", itemId, response.code());
+                    return false;
+                }
+
+                BufferedImage img;
+                try (InputStream in = response.body().byteStream())
+                {
+                    img = ImageIO.read(in);
+                }
+                if (img == null) return false;
+                iconCache.store(itemId, img);
+            }
+            catch (Exception e)
+            {
+                log.debug("Icon download failed for item {}", itemId, e);
+                return false;
+            }
+        }
+
+        onLoaded.accept(itemId);
+        return true;
+    }
+
+    private static String sanitizeIconUrl(String raw)
+    {
+        String safe = raw.replace(" ", "_")
+                .replace("'", "%27")
+                .replace("(", "%28")
+                .replace(")", "%29");
+        return "https://oldschool.runescape.wiki/images/c/c0/" + safe + "?7263b";
+    }
+}
@@ -0,0 +1,145 @@
+package com.flippingmasterminds;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Local copy of the os_dump.json item metadata (names and icon URLs).
+ *
+ * The dump is several megabytes but almost never changes, so it is kept on
+ * disk in a small binary file together with the ETag / Last-Modified
+ * validators of the response it came from. The plugin loads this copy on
+ * startup and only re-downloads the dump when a conditional request says the
+ * server's copy has changed.
+ */
+@Slf4j
+public class ItemMetaCache
+{
+    private static final int  MAGIC   = 0x464D4D49; // "FMMI"
+    private static final int  VERSION = 1;
+
+    private final File file;
+
+    private String etag         = "";
+    private String lastModified = "";
+
+    public ItemMetaCache(File dir)
+    {
+        this.file = new File(dir, "item-meta.bin");
+    }
+
+    /** ETag of the cached copy, or empty if none is known. */
+    public synchronized String getEtag()
+    {
+        return etag;
+    }
+
+    /** Last-Modified of the cached copy, or empty if none is known. */
+    public synchronized String getLastModified()
+    {
+        return lastModified;
+    }
+
+    /**
+     * Reads the cached metadata from disk. Returns {@code null} if there is no
+     * usable cache, in which case the validators are cleared so the next
+     * request is unconditional.
+     */
+    public synchronized Map<Integer, FlippingMastermindsPlugin.ItemMeta> load()
+    {
+        if (!file.isFile()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            {
+                log.debug("Ignoring item meta cache with unknown format");
+                clearValidators();
+                return null;
+            }
+
+            String cachedEtag         = in.readUTF();
+            String cachedLastModified = in.readUTF();
+
+            int count = in.readInt();
+            Map<Integer, FlippingMastermindsPlugin.ItemMeta> map = new HashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++)
+            {
+                int    id      = in.readInt();
+                String name    = in.readUTF();
+                String iconUrl = in.readUTF();
+                map.put(id, new FlippingMastermindsPlugin.ItemMeta(id, name, iconUrl));
+            }
+
+            etag         = cachedEtag;
+            lastModified = cachedLastModified;
+            return Collections.unmodifiableMap(map);
+        }
+        catch (IOException e)
+        {
+            log.warn("Could not read item meta cache, it will be re-downloaded", e);
+            clearValidators();
+            return null;
+        }
+    }
+
+    /**
+     * Writes the metadata and the validators of the response it came from.
+     * The file is written to a temporary sibling first and moved into place,
+     * so a crash mid-write never leaves a truncated cache behind.
+     */
+    public synchronized void save(Map<Integer, FlippingMastermindsPlugin.ItemMeta> meta,
+                                  String etag, String lastModified)
+    {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try
+        {
+            Files.createDirectories(file.getParentFile().toPath());
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(etag         != null ? etag         : "");
+                out.writeUTF(lastModified != null ? lastModified : "");
+
+                out.writeInt(meta.size());
+                for (FlippingMastermindsPlugin.ItemMeta im : meta.values())
+                {
+                    out.writeInt(im.id);
+                    out.writeUTF(im.name);
+                    out.writeUTF(im.iconUrl);
+                }
+            }
+
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            this.etag         = etag         != null ? etag         : "";
+            this.lastModified = lastModified != null ? lastModified : "";
+        }
+        catch (IOException e)
+        {
+            log.warn("Could not write item meta cache", e);
+            tmp.delete();
+        }
+    }
+
+    private void clearValidators()
+    {
+        etag         = "";
+        lastModified = "";
+    }
+}
@@ -0,0 +1,42 @@
+package com.flippingmasterminds;
+
+/** One filtered item as shown in the panel's result list. */
+public final class ItemRow
+{
+    final int    id;
+    final String name;
+    final String iconUrl;
+    final double changePct;
+    final long   changeAbs;
+    final long   volume;
+    final long   snapPrice;
+    final long   curPrice;
+
+    // Analytics; a NaN percentage or a 0 price means unknown
+    final long   vwap;
+    final double volatilityPct;
+    final long   margin;
+    final double roiPct;
+    final int    highTime;        // epoch seconds of the latest instant-buy, 0 if unknown
+    final int    lowTime;         // epoch seconds of the latest instant-sell, 0 if unknown
+
+    ItemRow(int id, String name, String iconUrl,
+            double changePct, long changeAbs, long volume, long snapPrice, long curPrice,
+            long vwap, double volatilityPct, long margin, double roiPct, int highTime, int lowTime)
+    {
+        this.id            = id;
+        this.name          = name;
+        this.iconUrl       = iconUrl;
+        this.changePct     = changePct;
+        this.changeAbs     = changeAbs;
+        this.volume        = volume;
+        this.snapPrice     = snapPrice;
+        this.curPrice      = curPrice;
+        this.vwap          = vwap;
+        this.volatilityPct = volatilityPct;
+        this.margin        = margin;
+        this.roiPct        = roiPct;
+        this.highTime      = highTime;
+        this.lowTime       = lowTime;
+    }
+}
@@ -0,0 +1,423 @@
+package com.flippingmasterminds;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, columnar view of all market data shared by the plugin and the panel.
+ *
+ * The item universe is the set of ids with a current price from /latest, kept
+ * in ascending order. Every per-window price and volume column is aligned to
+ * that order, so index {@code i} in any column refers to {@code ids()[i]} and
+ * filtering is a plain scan over primitive arrays. A missing price or volume
+ * is stored as 0. Per-window columns are indexed by {@link TimeWindow#index()};
+ * a window with no data yet, including one registered after the snapshot
+ * was built, reads as all zeros.
+ *
+ * Fetches land one at a time, so new snapshots are derived with
+ * {@link #withBaseline}, {@link #withLatest} and {@link #withWindow}; unchanged columns are shared
+ * between the old and new instance rather than copied. Callers must treat the
+ * arrays returned by the accessors as read-only.
+ */
+public final class MarketSnapshot
+{
+    private static final int[]  NO_IDS    = new int[0];
+    private static final long[] NO_VALUES = new long[0];
+    private static final int    METRICS   = SortMetric.values().length;
+
+    /** Margin of an item without both a high and a low price; below any Min Margin filter. */
+    static final long NO_MARGIN = Long.MIN_VALUE;
+
+    public static final MarketSnapshot EMPTY =
+            new MarketSnapshot(null, new PriceColumn[0], null, null, null, null, null, null);
+
+    // Source columns, kept so windows can be re-aligned when the universe changes
+    private final PriceColumn   latest;
+    private final PriceColumn[] sources;
+
+    // Aligned columns
+    private final int[]     ids;
+    private final long[]    current;
+    private final long[]    highs;
+    private final long[]    lows;
+    private final int[]     highTimes;
+    private final int[]     lowTimes;
+    private final long[]    margins;   // high - low, or NO_MARGIN
+    private final Aligned[] windows;
+    private final long[]    zeros;     // shared column for windows without data
+
+    // Indexes, built on first use and shared by derived snapshots whose
+    // underlying columns are unchanged. Guarded by indexLock.
+    private final Object          indexLock = new Object();
+    private final RankingIndex[]  rankings;
+    private final RangeIndex[]    volumeIndexes;
+    private final MetricIndex[][] metricIndexes;   // [metric][window]; window 0 for latest-only metrics
+    private RangeIndex            priceIndex;
+    private RangeIndex            marginIndex;
+
+    /** One window's source column merged onto the id universe. */
+    private static final class Aligned
+    {
+        final long[] prices;
+        final long[] volumes;
+        final long[] vwaps;
+        final long[] volatilities;
+
+        Aligned(long[] prices, long[] volumes, long[] vwaps, long[] volatilities)
+        {
+            this.prices       = prices;
+            this.volumes      = volumes;
+            this.vwaps        = vwaps;
+            this.volatilities = volatilities;
+        }
+    }
+
+    private MarketSnapshot(PriceColumn latest, PriceColumn[] sources, Aligned[] windows,
+                           RankingIndex[] rankings, RangeIndex[] volumeIndexes, RangeIndex priceIndex,
+                           RangeIndex marginIndex, MetricIndex[][] metricIndexes)
+    {
+        this.latest  = latest;
+        this.ids     = latest != null ? latest.ids    : NO_IDS;
+        this.current = latest != null ? latest.prices : NO_VALUES;
+        this.zeros   = new long[ids.length];
+        this.highs   = latest != null && latest.hasHighLow() ? latest.highs : zeros;
+        this.lows    = latest != null && latest.hasHighLow() ? latest.lows  : zeros;
+        this.highTimes = latest != null && latest.hasTimes() ? latest.highTimes : new int[ids.length];
+        this.lowTimes  = latest != null && latest.hasTimes() ? latest.lowTimes  : highTimes;
+
+        this.margins = new long[ids.length];
+        for (int i = 0; i < ids.length; i++)
+        {
+            margins[i] = highs[i] > 0 && lows[i] > 0 ? highs[i] - lows[i] : NO_MARGIN;
+        }
+
+        int count = Math.max(TimeWindow.count(), sources.length);
+        this.sources       = Arrays.copyOf(sources, count);
+        this.windows       = windows       != null ? Arrays.copyOf(windows, count)       : new Aligned[count];
+        this.rankings      = rankings      != null ? Arrays.copyOf(rankings, count)      : new RankingIndex[count];
+        this.volumeIndexes = volumeIndexes != null ? Arrays.copyOf(volumeIndexes, count) : new RangeIndex[count];
+        this.priceIndex    = priceIndex;
+        this.marginIndex   = marginIndex;
+
+        this.metricIndexes = new MetricIndex[METRICS][];
+        for (int m = 0; m < METRICS; m++)
+        {
+            this.metricIndexes[m] = metricIndexes != null && metricIndexes[m] != null
+                    ? Arrays.copyOf(metricIndexes[m], count)
+                    : new MetricIndex[count];
+        }
+
+        for (int w = 0; w < count; w++)
+        {
+            if (this.windows[w] == null) alignWindow(w);
+        }
+    }
+
+    /** Returns a snapshot with a new /latest baseline; all windows are re-aligned to it. */
+    public MarketSnapshot withBaseline(PriceColumn latest)
+    {
+        return new MarketSnapshot(latest, sources, null, null, null, null, null, null);
+    }
+
+    /**
+     * Returns a snapshot with fresh /latest prices, for periodic polling. When
+     * the item universe is unchanged the window columns and volume indexes
+     * are shared as-is and each built ranking is re-ranked for just the items
+     * whose price moved; otherwise this falls back to {@link #withBaseline}.
+     * Volatility does not involve the current price, so its orderings are
+     * kept too. Returns {@code this} if no price or quote changed.
+     */
+    public MarketSnapshot withLatest(PriceColumn next)
+    {
+        if (latest == null || !Arrays.equals(ids, next.ids)) return withBaseline(next);
+
+        int    n       = ids.length;
+        long[] fresh   = next.prices;
+        int[]  changed = new int[n];
+        int    count   = 0;
+        for (int i = 0; i < n; i++)
+        {
+            if (fresh[i] != current[i]) changed[count++] = i;
+        }
+        boolean sidesChanged = !Arrays.equals(next.highs, latest.highs) || !Arrays.equals(next.lows, latest.lows)
+                || !Arrays.equals(next.highTimes, latest.highTimes) || !Arrays.equals(next.lowTimes, latest.lowTimes);
+        if (count == 0 && !sidesChanged) return this;
+
+        RankingIndex[]  oldRanks;
+        RangeIndex[]    sameVolumeIndexes;
+        MetricIndex[][] keptMetrics = new MetricIndex[METRICS][];
+        synchronized (indexLock)
+        {
+            oldRanks          = rankings.clone();
+            sameVolumeIndexes = volumeIndexes.clone();
+            keptMetrics[SortMetric.VOLATILITY.ordinal()] = metricIndexes[SortMetric.VOLATILITY.ordinal()].clone();
+        }
+
+        // Past a quarter of the items, a lazy full rebuild is cheaper than merging
+        RankingIndex[] newRanks = new RankingIndex[oldRanks.length];
+        if (count == 0)
+        {
+            newRanks = oldRanks;
+        }
+        else if (count * 4 <= n)
+        {
+            for (int w = 0; w < oldRanks.length; w++)
+            {
+                if (oldRanks[w] != null)
+                    newRanks[w] = RankingIndex.rerank(oldRanks[w], fresh, windows[w].prices, changed, count);
+            }
+        }
+
+        return new MarketSnapshot(next, sources, windows, newRanks, sameVolumeIndexes, null, null, keptMetrics);
+    }
+
+    /** Returns a snapshot with one window replaced; every other column is shared. */
+    public MarketSnapshot withWindow(TimeWindow window, PriceColumn column)
+    {
+        int w     = window.index();
+        int count = Math.max(sources.length, w + 1);
+        PriceColumn[] newSources = Arrays.copyOf(sources, count);
+        Aligned[]     newWindows = Arrays.copyOf(windows, count);
+
+        RankingIndex[]  newRanks;
+        RangeIndex[]    newVolumeIndexes;
+        RangeIndex      samePriceIndex;
+        RangeIndex      sameMarginIndex;
+        MetricIndex[][] newMetrics = new MetricIndex[METRICS][];
+        synchronized (indexLock)
+        {
+            newRanks         = Arrays.copyOf(rankings,      count);
+            newVolumeIndexes = Arrays.copyOf(volumeIndexes, count);
+            samePriceIndex   = priceIndex;
+            sameMarginIndex  = marginIndex;
+            for (int m = 0; m < METRICS; m++) newMetrics[m] = Arrays.copyOf(metricIndexes[m], count);
+        }
+
+        newSources[w]       = column;
+        newWindows[w]       = null;
+        newRanks[w]         = null;
+        newVolumeIndexes[w] = null;
+        for (SortMetric metric : SortMetric.values())
+        {
+            if (metric.perWindow()) newMetrics[metric.ordinal()][w] = null;
+        }
+        return new MarketSnapshot(latest, newSources, newWindows,
+                newRanks, newVolumeIndexes, samePriceIndex, sameMarginIndex, newMetrics);
+    }
+
+    // ── Accessors ─────────────────────────────────────────────────────────────
+
+    public boolean hasBaseline()
+    {
+        return latest != null;
+    }
+
+    public boolean hasWindow(TimeWindow window)
+    {
+        int w = window.index();
+        return w < sources.length && sources[w] != null;
+    }
+
+    public int size()
+    {
+        return ids.length;
+    }
+
+    /** Item ids in ascending order. */
+    public int[] ids()
+    {
+        return ids;
+    }
+
+    /** Current price from /latest, aligned to {@link #ids()}. */
+    public long[] currentPrices()
+    {
+        return current;
+    }
+
+    /** Latest instant-buy price, aligned to {@link #ids()}. */
+    public long[] highs()
+    {
+        return highs;
+    }
+
+    /** Latest instant-sell price, aligned to {@link #ids()}. */
+    public long[] lows()
+    {
+        return lows;
+    }
+
+    /** When the latest instant-buy traded (epoch seconds, 0 if unknown), aligned to {@link #ids()}. */
+    public int[] highTimes()
+    {
+        return highTimes;
+    }
+
+    /** When the latest instant-sell traded (epoch seconds, 0 if unknown), aligned to {@link #ids()}. */
+    public int[] lowTimes()
+    {
+        return lowTimes;
+    }
+
+    /** Latest high minus low price, or {@link #NO_MARGIN}, aligned to {@link #ids()}. */
+    public long[] margins()
+    {
+        return margins;
+    }
+
+    /** Price at the start of {@code window}, aligned to {@link #ids()}. */
+    public long[] prices(TimeWindow window)
+    {
+        int w = window.index();
+        return w < windows.length ? windows[w].prices : zeros;
+    }
+
+    /** Trade volume for {@code window}, aligned to {@link #ids()}. */
+    public long[] volumes(TimeWindow window)
+    {
+        int w = window.index();
+        return w < windows.length ? windows[w].volumes : zeros;
+    }
+
+    /** Volume-weighted average price over {@code window}, aligned to {@link #ids()}. */
+    public long[] vwaps(TimeWindow window)
+    {
+        int w = window.index();
+        return w < windows.length ? windows[w].vwaps : zeros;
+    }
+
+    /** Volatility of 5m returns over {@code window} in basis points, aligned to {@link #ids()}. */
+    public long[] volatilities(TimeWindow window)
+    {
+        int w = window.index();
+        return w < windows.length ? windows[w].volatilities : zeros;
+    }
+
+    /**
+     * Items of {@code window} ordered by change %. Built once on first use
+     * (off the EDT, by the filter thread) and reused for every later query.
+     */
+    public RankingIndex ranking(TimeWindow window)
+    {
+        int w = window.index();
+        if (w >= rankings.length) return RankingIndex.build(current, zeros); // registered after this snapshot
+
+        synchronized (indexLock)
+        {
+            RankingIndex index = rankings[w];
+            if (index == null)
+            {
+                index = RankingIndex.build(current, windows[w].prices);
+                rankings[w] = index;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Items ordered by {@code metric} for {@code window}, built on first use.
+     * Margin and ROI only depend on /latest, so one ordering serves every window.
+     */
+    public MetricIndex metricIndex(SortMetric metric, TimeWindow window)
+    {
+        int w = metric.perWindow() ? window.index() : 0;
+        if (w >= windows.length) return MetricIndex.build(Analytics.column(metric, this, window));
+
+        MetricIndex[] row = metricIndexes[metric.ordinal()];
+        synchronized (indexLock)
+        {
+            MetricIndex index = row[w];
+            if (index == null)
+            {
+                index = MetricIndex.build(Analytics.column(metric, this, window));
+                row[w] = index;
+            }
+            return index;
+        }
+    }
+
+    /** Range index over the current prices, built on first use. */
+    public RangeIndex priceIndex()
+    {
+        synchronized (indexLock)
+        {
+            if (priceIndex == null) priceIndex = RangeIndex.build(current);
+            return priceIndex;
+        }
+    }
+
+    /** Range index over the latest margins, built on first use. */
+    public RangeIndex marginIndex()
+    {
+        synchronized (indexLock)
+        {
+            if (marginIndex == null) marginIndex = RangeIndex.build(margins);
+            return marginIndex;
+        }
+    }
+
+    /** Range index over {@code window}'s volumes, built on first use. */
+    public RangeIndex volumeIndex(TimeWindow window)
+    {
+        int w = window.index();
+        if (w >= volumeIndexes.length) return RangeIndex.build(zeros); // registered after this snapshot
+
+        synchronized (indexLock)
+        {
+            RangeIndex index = volumeIndexes[w];
+            if (index == null)
+            {
+                index = RangeIndex.build(windows[w].volumes);
+                volumeIndexes[w] = index;
+            }
+            return index;
+        }
+    }
+
+    // ── Alignment ─────────────────────────────────────────────────────────────
+
+    /**
+     * Merge-joins a sorted source column onto the sorted id universe. A single
+     * average bucket has no stats of its own; its VWAP comes from the average
+     * price and volume of each side.
+     */
+    private void alignWindow(int window)
+    {
+        PriceColumn src = sources[window];
+        if (src == null)
+        {
+            windows[window] = new Aligned(zeros, zeros, zeros, zeros);
+            return;
+        }
+
+        int     n     = ids.length;
+        boolean stats = src.hasStats();
+        boolean sides = !stats && src.hasSideVolumes();
+        long[]  p     = new long[n];
+        long[]  v     = new long[n];
+        long[]  vw    = stats || sides ? new long[n] : zeros;
+        long[]  vol   = stats ? new long[n] : zeros;
+
+        int[] srcIds = src.ids;
+        int   j      = 0;
+        for (int i = 0; i < n && j < srcIds.length; i++)
+        {
+            while (j < srcIds.length && srcIds[j] < ids[i]) j++;
+            if (j < srcIds.length && srcIds[j] == ids[i])
+            {
+                p[i] = src.prices[j];
+                v[i] = src.volumes[j];
+                if (stats)
+                {
+                    vw[i]  = src.vwaps[j];
+                    vol[i] = src.volatilities[j];
+                }
+                else if (sides)
+                {
+                    vw[i] = Analytics.vwap(src.highs[j], src.highVolumes[j], src.lows[j], src.lowVolumes[j]);
+                }
+            }
+        }
+
+        windows[window] = new Aligned(p, v, vw, vol);
+    }
+}
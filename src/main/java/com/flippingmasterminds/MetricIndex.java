@@ -0,0 +1,63 @@
+package com.flippingmasterminds;
+
+import java.util.Arrays;
+
+/**
+ * Items of one snapshot ordered by an {@link Analytics} metric, highest value
+ * first, with ties in ascending item id. Items the metric is unknown for are
+ * left out.
+ *
+ * Like {@link RankingIndex}, it is built once per snapshot and window on
+ * first use, and {@link #rankOf} lets a range-index query map its candidates
+ * back to this order.
+ */
+public final class MetricIndex
+{
+    private final int[] order;   // snapshot positions, highest value first
+    private final int[] rank;    // snapshot position -> index in order, or -1
+
+    private MetricIndex(int[] order, int[] rank)
+    {
+        this.order = order;
+        this.rank  = rank;
+    }
+
+    static MetricIndex build(double[] values)
+    {
+        int    n     = values.length;
+        int[]  order = new int[n];
+        long[] keys  = new long[n];
+        int    size  = 0;
+        for (int i = 0; i < n; i++)
+        {
+            if (Double.isNaN(values[i])) continue;
+            order[size] = i;
+            keys[size]  = PrimitiveSort.sortableBits(-values[i]);
+            size++;
+        }
+        PrimitiveSort.sort(keys, order, 0, size);
+
+        int[] rank = new int[n];
+        Arrays.fill(rank, -1);
+        for (int r = 0; r < size; r++) rank[order[r]] = r;
+        return new MetricIndex(Arrays.copyOf(order, size), rank);
+    }
+
+    /** Number of items the metric is known for. */
+    public int size()
+    {
+        return order.length;
+    }
+
+    /** Snapshot position at ordering index {@code i}. */
+    int positionAt(int i)
+    {
+        return order[i];
+    }
+
+    /** Ordering index of a snapshot position, or -1 if the metric is unknown for it. */
+    int rankOf(int position)
+    {
+        return rank[position];
+    }
+}
@@ -0,0 +1,283 @@
+package com.flippingmasterminds;
+
+import java.util.Arrays;
+
+/**
+ * The parsed result of one price endpoint: item ids in ascending order with
+ * their price and volume in parallel primitive arrays. Immutable once built.
+ *
+ * {@link #prices} and {@link #volumes} are what every window compares: the
+ * mid of the high and low price and the total trade count. The two sides
+ * behind them are kept as well, in optional columns that are {@code null}
+ * unless the builder was given them:
+ * <ul>
+ *   <li>{@link #highs} / {@link #lows}: the latest instant-buy and
+ *       instant-sell price from /latest, or the average of each from a
+ *       /5m, /1h or /24h bucket;</li>
+ *   <li>{@link #highTimes} / {@link #lowTimes}: when the /latest prices
+ *       traded, in epoch seconds;</li>
+ *   <li>{@link #highVolumes} / {@link #lowVolumes}: trades on each side of
+ *       an average bucket;</li>
+ *   <li>{@link #vwaps} / {@link #volatilities}: window statistics computed
+ *       from the /5m series.</li>
+ * </ul>
+ * Times and per-side volumes are ints, which comfortably hold both epoch
+ * seconds and a bucket's trade count, so the extra sides cost well under
+ * the size of the mid columns.
+ */
+public final class PriceColumn
+{
+    final int[]  ids;
+    final long[] prices;
+    final long[] volumes;
+
+    final long[] highs;          // 0 if unknown
+    final long[] lows;           // 0 if unknown
+    final int[]  highTimes;      // 0 if unknown
+    final int[]  lowTimes;       // 0 if unknown
+    final int[]  highVolumes;
+    final int[]  lowVolumes;
+    final long[] vwaps;          // volume-weighted average price, 0 if unknown
+    final int[]  volatilities;   // std dev of 5m returns in basis points, 0 if unknown
+
+    private PriceColumn(int[] ids, long[] prices, long[] volumes, long[] highs, long[] lows,
+                        int[] highTimes, int[] lowTimes, int[] highVolumes, int[] lowVolumes,
+                        long[] vwaps, int[] volatilities)
+    {
+        this.ids          = ids;
+        this.prices       = prices;
+        this.volumes      = volumes;
+        this.highs        = highs;
+        this.lows         = lows;
+        this.highTimes    = highTimes;
+        this.lowTimes     = lowTimes;
+        this.highVolumes  = highVolumes;
+        this.lowVolumes   = lowVolumes;
+        this.vwaps        = vwaps;
+        this.volatilities = volatilities;
+    }
+
+    public int size()
+    {
+        return ids.length;
+    }
+
+    /** Whether {@link #highs} and {@link #lows} are present. */
+    public boolean hasHighLow()
+    {
+        return highs != null;
+    }
+
+    /** Whether {@link #highTimes} and {@link #lowTimes} are present. */
+    public boolean hasTimes()
+    {
+        return highTimes != null;
+    }
+
+    /** Whether {@link #highVolumes} and {@link #lowVolumes} are present. */
+    public boolean hasSideVolumes()
+    {
+        return highVolumes != null;
+    }
+
+    /** Whether {@link #vwaps} and {@link #volatilities} are present. */
+    public boolean hasStats()
+    {
+        return vwaps != null;
+    }
+
+    /** Index of {@code id} in this column, or a negative value if absent. */
+    public int indexOf(int id)
+    {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    /**
+     * Accumulates entries in whatever order the endpoint lists them and sorts
+     * them by id once on {@link #build()}. A missing price is stored as 0.
+     * The optional columns are allocated on the first entry that carries them.
+     */
+    public static final class Builder
+    {
+        private int[]  ids     = new int[4096];
+        private long[] prices  = new long[4096];
+        private long[] volumes = new long[4096];
+        private long[] highs;
+        private long[] lows;
+        private int[]  highTimes;
+        private int[]  lowTimes;
+        private int[]  highVolumes;
+        private int[]  lowVolumes;
+        private long[] vwaps;
+        private int[]  volatilities;
+        private int    size    = 0;
+        private boolean sorted = true;
+
+        public void add(int id, long price, long volume)
+        {
+            if (size == ids.length)
+            {
+                int cap = size * 2;
+                ids          = Arrays.copyOf(ids, cap);
+                prices       = Arrays.copyOf(prices, cap);
+                volumes      = Arrays.copyOf(volumes, cap);
+                highs        = grow(highs, cap);
+                lows         = grow(lows, cap);
+                highTimes    = grow(highTimes, cap);
+                lowTimes     = grow(lowTimes, cap);
+                highVolumes  = grow(highVolumes, cap);
+                lowVolumes   = grow(lowVolumes, cap);
+                vwaps        = grow(vwaps, cap);
+                volatilities = grow(volatilities, cap);
+            }
+            if (size > 0 && ids[size - 1] >= id) sorted = false;
+
+            ids[size]     = id;
+            prices[size]  = price;
+            volumes[size] = volume;
+            size++;
+        }
+
+        /**
+         * Adds a /latest entry: the instant-buy ({@code high}) and instant-sell
+         * ({@code low}) prices and when each traded. The price is their mid.
+         */
+        public void addLatest(int id, long high, int highTime, long low, int lowTime)
+        {
+            add(id, (high + low) / 2, 0);
+            addHighLow(high, low);
+            if (highTimes == null)
+            {
+                highTimes = new int[ids.length];
+                lowTimes  = new int[ids.length];
+            }
+            highTimes[size - 1] = highTime;
+            lowTimes [size - 1] = lowTime;
+        }
+
+        /**
+         * Adds an average-bucket entry from the raw (possibly fractional)
+         * averages, where NaN or 0 means a side did not trade. The price is
+         * the mid of the two averages when both sides traded (0 otherwise),
+         * rounded once from the raw values, and the volume is the total of
+         * both sides. Each side's average is kept rounded to the nearest gp.
+         */
+        public void addAverages(int id, double avgHigh, int highVolume, double avgLow, int lowVolume)
+        {
+            long high = avgHigh > 0 ? Math.round(avgHigh) : 0;
+            long low  = avgLow  > 0 ? Math.round(avgLow)  : 0;
+            long mid  = avgHigh > 0 && avgLow > 0 ? Math.round((avgHigh + avgLow) / 2.0) : 0;
+            addAverages(id, mid, high, highVolume, low, lowVolume);
+        }
+
+        /** As above with the mid already known, e.g. when restoring a stored column. */
+        void addAverages(int id, long mid, long avgHigh, int highVolume, long avgLow, int lowVolume)
+        {
+            add(id, mid, (long) highVolume + lowVolume);
+            addHighLow(avgHigh, avgLow);
+            if (highVolumes == null)
+            {
+                highVolumes = new int[ids.length];
+                lowVolumes  = new int[ids.length];
+            }
+            highVolumes[size - 1] = highVolume;
+            lowVolumes [size - 1] = lowVolume;
+        }
+
+        /** Adds an entry together with its window statistics. */
+        public void addStats(int id, long price, long volume, long vwap, int volatility)
+        {
+            add(id, price, volume);
+            if (vwaps == null)
+            {
+                vwaps        = new long[ids.length];
+                volatilities = new int[ids.length];
+            }
+            vwaps[size - 1]        = vwap;
+            volatilities[size - 1] = volatility;
+        }
+
+        private void addHighLow(long high, long low)
+        {
+            if (highs == null)
+            {
+                highs = new long[ids.length];
+                lows  = new long[ids.length];
+            }
+            highs[size - 1] = high;
+            lows [size - 1] = low;
+        }
+
+        public PriceColumn build()
+        {
+            int[] pick;   // builder index of each output entry
+            int   n;
+            if (sorted)
+            {
+                pick = null;
+                n    = size;
+            }
+            else
+            {
+                // Sort (id, position) pairs packed into longs
+                long[] keys = new long[size];
+                for (int i = 0; i < size; i++) keys[i] = ((long) ids[i] << 32) | i;
+                Arrays.sort(keys);
+
+                pick = new int[size];
+                n    = 0;
+                int lastId = 0;
+                for (long key : keys)
+                {
+                    int id  = (int) (key >>> 32);
+                    int pos = (int) key;
+                    // Duplicate ids keep the last entry the endpoint listed
+                    if (n > 0 && lastId == id) n--;
+                    pick[n++] = pos;
+                    lastId    = id;
+                }
+            }
+
+            return new PriceColumn(
+                    gather(ids, pick, n),
+                    gather(prices, pick, n),
+                    gather(volumes, pick, n),
+                    gather(highs, pick, n),
+                    gather(lows, pick, n),
+                    gather(highTimes, pick, n),
+                    gather(lowTimes, pick, n),
+                    gather(highVolumes, pick, n),
+                    gather(lowVolumes, pick, n),
+                    gather(vwaps, pick, n),
+                    gather(volatilities, pick, n));
+        }
+
+        private static long[] grow(long[] a, int cap)
+        {
+            return a != null ? Arrays.copyOf(a, cap) : null;
+        }
+
+        private static int[] grow(int[] a, int cap)
+        {
+            return a != null ? Arrays.copyOf(a, cap) : null;
+        }
+
+        private static long[] gather(long[] src, int[] pick, int n)
+        {
+            if (src == null)  return null;
+            if (pick == null) return Arrays.copyOf(src, n);
+            long[] out = new long[n];
+            for (int i = 0; i < n; i++) out[i] = src[pick[i]];
+            return out;
+        }
+
+        private static int[] gather(int[] src, int[] pick, int n)
+        {
+            if (src == null)  return null;
+            if (pick == null) return Arrays.copyOf(src, n);
+            int[] out = new int[n];
+            for (int i = 0; i < n; i++) out[i] = src[pick[i]];
+            return out;
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package com.flippingmasterminds;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Append-only local history of price buckets, read with positional
+ * {@link FileChannel} reads.
+ *
+ * The file is a short header followed by blocks, one per bucket:
+ * <pre>
+ *   long timestamp | int step (seconds) | int count
+ *   count x ( int itemId | long midPrice | int volume | long vwap )   -- ascending itemId
+ * </pre>
+ * Every record is 24 bytes, so a block is read with one positional read and
+ * becomes a {@link PriceColumn} with a straight walk of the buffer and no
+ * parsing. Block headers are indexed in memory on {@link #open}.
+ *
+ * Buckets are immutable, so a bucket is only ever appended once. The /5m
+ * buckets behind the Day series are rolled up into hourly blocks once an hour
+ * is complete, and hourly blocks into daily ones, so windows longer than a
+ * day can be served from disk too (see {@link #maintain}). Each step is kept
+ * for as long as some window can use it (see {@link #retention}); older
+ * blocks are dropped when the store is compacted, on {@link #open} and
+ * whenever {@link #maintain} finds the file has grown by half (and at least
+ * a few MB) since the last compaction.
+ *
+ * The file is deliberately not memory-mapped: a mapping is only released
+ * when the garbage collector gets to it, and until then Windows refuses to
+ * replace the file, which compaction does.
+ *
+ * A store that fails to open stays empty and ignores appends, so the plugin
+ * simply falls back to the network.
+ */
+@Slf4j
+public class PriceHistoryStore
+{
+    private static final int  MAGIC       = 0x464D4D48; // "FMMH"
+    private static final int  VERSION     = 2;
+    private static final int  HEADER_SIZE = 8;
+    private static final int  BLOCK_SIZE  = 16;
+    private static final int  RECORD_SIZE = 24;
+
+    // Growth that is never worth a rewrite, however small the file is
+    private static final long MIN_COMPACT_GROWTH = 4L << 20;
+
+    static final int FIVE_MINUTES = 300;
+    static final int HOUR         = 3600;
+    static final int DAY          = 86400;
+
+    private final File file;
+
+    private FileChannel       channel;
+    private long              compactAt;   // file size that makes maintain() compact
+    private final List<Block> blocks = new ArrayList<>();   // in append order
+
+    /** One bucket's position in the file. */
+    private static final class Block
+    {
+        final long timestamp;
+        final int  step;
+        final int  count;
+        final long offset;   // of the first record
+
+        Block(long timestamp, int step, int count, long offset)
+        {
+            this.timestamp = timestamp;
+            this.step      = step;
+            this.count     = count;
+            this.offset    = offset;
+        }
+    }
+
+    /** Receives stored buckets in timestamp order. */
+    public interface BucketSink
+    {
+        void accept(long timestamp, PriceColumn bucket);
+    }
+
+    public PriceHistoryStore(File file)
+    {
+        this.file = file;
+    }
+
+    /**
+     * Opens the file, dropping expired blocks and any partially written tail.
+     * Does file I/O, so call it off the EDT.
+     */
+    public synchronized void open(long now)
+    {
+        try
+        {
+            Files.createDirectories(file.getParentFile().toPath());
+            compact(now);
+            openChannel();
+        }
+        catch (IOException e)
+        {
+            log.warn("Could not open price history, continuing without it", e);
+            close();
+        }
+    }
+
+    private void openChannel() throws IOException
+    {
+        channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0)
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            channel.write(header, 0);
+        }
+        indexBlocks();
+        scheduleCompaction();
+    }
+
+    private void scheduleCompaction() throws IOException
+    {
+        long size = channel.size();
+        compactAt = Math.max(size + size / 2, size + MIN_COMPACT_GROWTH);
+    }
+
+    public synchronized void close()
+    {
+        blocks.clear();
+        if (channel == null) return;
+        try
+        {
+            channel.close();
+        }
+        catch (IOException ignored) { }
+        channel = null;
+    }
+
+    /** Appends one bucket unless it is already stored. */
+    public synchronized void append(long timestamp, int step, PriceColumn bucket)
+    {
+        if (channel == null || find(timestamp, step) != null) return;
+
+        ByteBuffer buf = ByteBuffer.allocate(BLOCK_SIZE + bucket.size() * RECORD_SIZE);
+        buf.putLong(timestamp).putInt(step).putInt(bucket.size());
+        for (int i = 0; i < bucket.size(); i++)
+        {
+            buf.putInt(bucket.ids[i])
+               .putLong(bucket.prices[i])
+               .putInt((int) Math.min(bucket.volumes[i], Integer.MAX_VALUE))
+               .putLong(vwapOf(bucket, i));
+        }
+        buf.flip();
+
+        try
+        {
+            long at = channel.size();
+            while (buf.hasRemaining()) at += channel.write(buf, at);
+            blocks.add(new Block(timestamp, step, bucket.size(), at - (long) bucket.size() * RECORD_SIZE));
+        }
+        catch (IOException e)
+        {
+            log.warn("Could not append to price history", e);
+        }
+    }
+
+    /** The stored bucket of {@code step} starting at {@code timestamp}, or {@code null}. */
+    public synchronized PriceColumn get(long timestamp, int step)
+    {
+        Block b = find(timestamp, step);
+        return b == null ? null : read(b);
+    }
+
+    /** Replays every stored bucket of {@code step} with {@code from <= timestamp <= to}, oldest first. */
+    public synchronized void replay(int step, long from, long to, BucketSink sink)
+    {
+        List<Block> matches = new ArrayList<>();
+        for (Block b : blocks)
+        {
+            if (b.step == step && b.timestamp >= from && b.timestamp <= to) matches.add(b);
+        }
+        matches.sort((a, b) -> Long.compare(a.timestamp, b.timestamp));
+
+        for (Block b : matches)
+        {
+            PriceColumn column = read(b);
+            if (column != null) sink.accept(b.timestamp, column);
+        }
+    }
+
+    /**
+     * Rolls every complete hour of /5m blocks up into an hourly block, and
+     * every complete day of hourly blocks into a daily one, unless that block
+     * is already stored (e.g. fetched as a snapshot). Then, if the file has
+     * grown by half since it was last compacted and holds expired blocks,
+     * compacts it so a long session does not grow the file without bound. Does file I/O, so
+     * call it off the EDT.
+     */
+    public synchronized void maintain(long now)
+    {
+        if (channel == null) return;
+        rollUp(FIVE_MINUTES, HOUR);
+        rollUp(HOUR, DAY);
+
+        try
+        {
+            if (channel.size() < compactAt) return;
+            if (!anyExpired(now))
+            {
+                scheduleCompaction();
+                return;
+            }
+
+            channel.close();
+            channel = null;
+            compact(now);
+            openChannel();
+        }
+        catch (IOException e)
+        {
+            log.warn("Could not compact price history, continuing without it", e);
+            close();
+        }
+    }
+
+    private boolean anyExpired(long now)
+    {
+        for (Block b : blocks)
+        {
+            if (expired(b.timestamp, b.step, now)) return true;
+        }
+        return false;
+    }
+
+    private void rollUp(int step, int into)
+    {
+        Map<Long, List<Block>> periods = new TreeMap<>();
+        for (Block b : blocks)
+        {
+            if (b.step == step) periods.computeIfAbsent(b.timestamp - b.timestamp % into, k -> new ArrayList<>()).add(b);
+        }
+
+        for (Map.Entry<Long, List<Block>> period : periods.entrySet())
+        {
+            List<Block> parts = period.getValue();
+            if (parts.size() < into / step || find(period.getKey(), into) != null) continue;
+            parts.sort((a, b) -> Long.compare(a.timestamp, b.timestamp));
+
+            PriceColumn rolled = null;
+            for (Block b : parts)
+            {
+                PriceColumn column = read(b);
+                if (column == null) return;
+                rolled = rolled == null ? column : combine(rolled, column);
+            }
+            append(period.getKey(), into, rolled);
+        }
+    }
+
+    /**
+     * Two consecutive buckets as one, the way {@link FiveMinuteSeries#toColumn}
+     * spans a window: each item keeps its earlier price unless it did not
+     * trade then, volumes add up, and VWAPs are weighted by volume.
+     */
+    static PriceColumn combine(PriceColumn earlier, PriceColumn later)
+    {
+        PriceColumn.Builder column = new PriceColumn.Builder();
+        int i = 0, j = 0;
+        while (i < earlier.size() || j < later.size())
+        {
+            int a = i < earlier.size() ? earlier.ids[i] : Integer.MAX_VALUE;
+            int b = j < later.size()   ? later.ids[j]   : Integer.MAX_VALUE;
+            if (a < b)
+            {
+                column.addStats(a, earlier.prices[i], earlier.volumes[i], vwapOf(earlier, i), 0);
+                i++;
+            }
+            else if (b < a)
+            {
+                column.addStats(b, later.prices[j], later.volumes[j], vwapOf(later, j), 0);
+                j++;
+            }
+            else
+            {
+                long price = earlier.prices[i] != 0 ? earlier.prices[i] : later.prices[j];
+                long va    = vwapOf(earlier, i);
+                long vb    = vwapOf(later, j);
+                long wa    = va > 0 ? earlier.volumes[i] : 0;
+                long wb    = vb > 0 ? later.volumes[j]   : 0;
+                long vwap  = wa + wb > 0 ? Math.round(((double) va * wa + (double) vb * wb) / (wa + wb)) : Math.max(va, vb);
+                column.addStats(a, price, earlier.volumes[i] + later.volumes[j], vwap, 0);
+                i++;
+                j++;
+            }
+        }
+        return column.build();
+    }
+
+    /** Entry {@code i}'s VWAP: its own if it has stats, else from the average price of each side, else 0. */
+    private static long vwapOf(PriceColumn column, int i)
+    {
+        if (column.hasStats()) return column.vwaps[i];
+        if (column.hasSideVolumes())
+        {
+            return Analytics.vwap(column.highs[i], column.highVolumes[i], column.lows[i], column.lowVolumes[i]);
+        }
+        return 0;
+    }
+
+    // ── File layout ───────────────────────────────────────────────────────────
+
+    private Block find(long timestamp, int step)
+    {
+        for (int i = blocks.size() - 1; i >= 0; i--)
+        {
+            Block b = blocks.get(i);
+            if (b.timestamp == timestamp && b.step == step) return b;
+        }
+        return null;
+    }
+
+    private PriceColumn read(Block b)
+    {
+        if (channel == null) return null;
+
+        ByteBuffer buf = ByteBuffer.allocate(b.count * RECORD_SIZE);
+        try
+        {
+            if (!readFully(channel, buf, b.offset)) return null;
+        }
+        catch (IOException e)
+        {
+            log.warn("Could not read price history", e);
+            return null;
+        }
+
+        PriceColumn.Builder column = new PriceColumn.Builder();
+        for (int i = 0, at = 0; i < b.count; i++, at += RECORD_SIZE)
+        {
+            column.addStats(buf.getInt(at), buf.getLong(at + 4), buf.getInt(at + 12), buf.getLong(at + 16), 0);
+        }
+        return column.build();
+    }
+
+    /**
+     * Walks the block headers with plain reads; a truncated tail from an
+     * interrupted append is cut off.
+     */
+    private void indexBlocks() throws IOException
+    {
+        blocks.clear();
+
+        if (!hasValidHeader(channel)) throw new IOException("Price history has an unknown format");
+
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_SIZE);
+        long end = channel.size();
+        long at  = HEADER_SIZE;
+        while (readFully(channel, header, at))
+        {
+            long ts    = header.getLong(0);
+            int  step  = header.getInt(8);
+            int  count = header.getInt(12);
+            long next  = at + BLOCK_SIZE + (long) count * RECORD_SIZE;
+            if (count < 0 || next > end) break;
+
+            blocks.add(new Block(ts, step, count, at + BLOCK_SIZE));
+            at = next;
+        }
+
+        if (at < end)
+        {
+            log.debug("Dropping {} bytes of incomplete price history", end - at);
+            channel.truncate(at);
+        }
+    }
+
+    /**
+     * How long blocks of {@code step} are kept: the Day series' 24 hours, the
+     * hourly buckets behind windows of up to a week, and the daily buckets
+     * behind windows of up to a month, each with a day of slack. The Year
+     * window and long custom ones always come from the network.
+     */
+    static long retention(int step)
+    {
+        if (step == DAY)  return 35L * DAY;
+        if (step == HOUR) return 8L * DAY;
+        return 25L * HOUR;
+    }
+
+    private static boolean expired(long timestamp, int step, long now)
+    {
+        return timestamp < now - retention(step);
+    }
+
+    /**
+     * Rewrites the file without expired blocks, via a temporary sibling so a
+     * crash never loses the whole history. A file in an unknown format is
+     * discarded.
+     */
+    private void compact(long now) throws IOException
+    {
+        if (!file.isFile()) return;
+
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        boolean unknownFormat;
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            unknownFormat = !hasValidHeader(in);
+            if (!unknownFormat && !rewriteWithoutExpired(in, tmp, now)) return;
+        }
+
+        if (unknownFormat)
+        {
+            log.debug("Discarding price history with unknown format");
+            Files.delete(file.toPath());
+            return;
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Copies the unexpired blocks of {@code in} to {@code tmp}; returns {@code false} if none had expired. */
+    private static boolean rewriteWithoutExpired(FileChannel in, File tmp, long now) throws IOException
+    {
+        // Find out first whether anything needs dropping
+        List<long[]> keep = new ArrayList<>();   // {start, length} of blocks to keep
+        boolean dropping = false;
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_SIZE);
+        long end = in.size();
+        long at  = HEADER_SIZE;
+        while (readFully(in, header, at))
+        {
+            long ts    = header.getLong(0);
+            int  step  = header.getInt(8);
+            int  count = header.getInt(12);
+            long next  = at + BLOCK_SIZE + (long) count * RECORD_SIZE;
+            if (count < 0 || next > end) break;
+
+            if (expired(ts, step, now)) dropping = true;
+            else                       keep.add(new long[]{ at, next - at });
+            at = next;
+        }
+        if (!dropping) return false;
+
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            transferFully(in, 0, HEADER_SIZE, out);
+            for (long[] block : keep) transferFully(in, block[0], block[1], out);
+        }
+        return true;
+    }
+
+    private static boolean hasValidHeader(FileChannel ch) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        return readFully(ch, header, 0) && header.getInt(0) == MAGIC && header.getInt(4) == VERSION;
+    }
+
+    /** Fills {@code buf} from {@code at}; returns {@code false} if the file ends first. */
+    private static boolean readFully(FileChannel ch, ByteBuffer buf, long at) throws IOException
+    {
+        buf.clear();
+        while (buf.hasRemaining())
+        {
+            int n = ch.read(buf, at + buf.position());
+            if (n < 0) return false;
+        }
+        return true;
+    }
+
+    private static void transferFully(FileChannel in, long from, long length, FileChannel out) throws IOException
+    {
+        long done = 0;
+        while (done < length) done += in.transferTo(from + done, length - done, out);
+    }
+}
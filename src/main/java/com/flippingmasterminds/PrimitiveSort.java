@@ -0,0 +1,81 @@
+package com.flippingmasterminds;
+
+/**
+ * In-place sort of a {@code long} key array carrying an {@code int} payload,
+ * used by the indexes so they never box values or allocate comparators.
+ * Equal keys are ordered by payload, which keeps results deterministic.
+ */
+final class PrimitiveSort
+{
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private PrimitiveSort() { }
+
+    /** Sorts {@code keys[from, to)} ascending, permuting {@code payload} alongside. */
+    static void sort(long[] keys, int[] payload, int from, int to)
+    {
+        sortRange(keys, payload, from, to - 1);
+    }
+
+    /**
+     * Maps a double to a long with the same ordering (for non-NaN values), so
+     * double keys such as a change % can be sorted with {@link #sort}.
+     */
+    static long sortableBits(double value)
+    {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /** Quicksort of the inclusive range [lo, hi], recursing into the smaller half. */
+    private static void sortRange(long[] keys, int[] payload, int lo, int hi)
+    {
+        while (hi - lo >= INSERTION_SORT_THRESHOLD)
+        {
+            int p = partition(keys, payload, lo, hi);
+            if (p - lo < hi - p)
+            {
+                sortRange(keys, payload, lo, p - 1);
+                lo = p + 1;
+            }
+            else
+            {
+                sortRange(keys, payload, p + 1, hi);
+                hi = p - 1;
+            }
+        }
+
+        for (int i = lo + 1; i <= hi; i++)
+        {
+            for (int j = i; j > lo && less(keys, payload, j, j - 1); j--) swap(keys, payload, j, j - 1);
+        }
+    }
+
+    /** Lomuto partition around a median-of-three pivot; returns the pivot's final index. */
+    private static int partition(long[] keys, int[] payload, int lo, int hi)
+    {
+        int mid = (lo + hi) >>> 1;
+        if (less(keys, payload, mid, lo)) swap(keys, payload, mid, lo);
+        if (less(keys, payload, hi, lo))  swap(keys, payload, hi, lo);
+        if (less(keys, payload, mid, hi)) swap(keys, payload, mid, hi);   // hi now holds the median
+
+        int store = lo;
+        for (int i = lo; i < hi; i++)
+        {
+            if (less(keys, payload, i, hi)) swap(keys, payload, i, store++);
+        }
+        swap(keys, payload, store, hi);
+        return store;
+    }
+
+    private static boolean less(long[] keys, int[] payload, int i, int j)
+    {
+        return keys[i] < keys[j] || (keys[i] == keys[j] && payload[i] < payload[j]);
+    }
+
+    private static void swap(long[] keys, int[] payload, int i, int j)
+    {
+        long k = keys[i];    keys[i] = keys[j];       keys[j] = k;
+        int  p = payload[i]; payload[i] = payload[j]; payload[j] = p;
+    }
+}
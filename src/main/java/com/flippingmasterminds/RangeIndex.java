@@ -0,0 +1,66 @@
+package com.flippingmasterminds;
+
+import java.util.Arrays;
+
+/**
+ * Sorted secondary index over one aligned snapshot column, e.g. the current
+ * price or a window's volume.
+ *
+ * A min/max filter becomes two binary searches that bound the contiguous
+ * slice of qualifying snapshot positions, so a query only touches the items
+ * that actually pass. Any further long column (another window, another
+ * metric) can be indexed the same way.
+ */
+public final class RangeIndex
+{
+    private final long[] values;     // ascending
+    private final int[]  positions;  // snapshot position of each value
+
+    private RangeIndex(long[] values, int[] positions)
+    {
+        this.values    = values;
+        this.positions = positions;
+    }
+
+    static RangeIndex build(long[] column)
+    {
+        long[] values    = Arrays.copyOf(column, column.length);
+        int[]  positions = new int[column.length];
+        for (int i = 0; i < positions.length; i++) positions[i] = i;
+
+        PrimitiveSort.sort(values, positions, 0, values.length);
+        return new RangeIndex(values, positions);
+    }
+
+    /** First slice index whose value is {@code >= min}. */
+    int lowerBound(long min)
+    {
+        int lo = 0, hi = values.length;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < min) lo = mid + 1;
+            else                   hi = mid;
+        }
+        return lo;
+    }
+
+    /** First slice index whose value is {@code > max}. */
+    int upperBound(long max)
+    {
+        int lo = 0, hi = values.length;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= max) lo = mid + 1;
+            else                    hi = mid;
+        }
+        return lo;
+    }
+
+    /** Snapshot position at slice index {@code i}. */
+    int position(int i)
+    {
+        return positions[i];
+    }
+}
@@ -0,0 +1,82 @@
+package com.flippingmasterminds;
+
+import java.util.Map;
+
+/**
+ * The items that passed a filter, in display order.
+ *
+ * Matches are held as snapshot positions taken from a walk of the window's
+ * {@link RankingIndex} or {@link MetricIndex}, so they arrive already ranked. {@link ItemRow}
+ * objects are only created for rows that are actually displayed.
+ *
+ * Instances are built on the filter thread and afterwards only touched from
+ * the EDT.
+ */
+public final class RankedResult
+{
+    public static final RankedResult EMPTY =
+            new RankedResult(MarketSnapshot.EMPTY, null, TimeWindow.DAY, new int[0], 0);
+
+    private final MarketSnapshot snapshot;
+    private final Map<Integer, FlippingMastermindsPlugin.ItemMeta> meta;
+    private final TimeWindow window;
+
+    private final int[]     positions;  // snapshot index of each match, in display order
+    private final int       size;
+    private final ItemRow[] rows;
+
+    RankedResult(MarketSnapshot snapshot, Map<Integer, FlippingMastermindsPlugin.ItemMeta> meta,
+                 TimeWindow window, int[] positions, int size)
+    {
+        this.snapshot  = snapshot;
+        this.meta      = meta;
+        this.window    = window;
+        this.positions = positions;
+        this.size      = size;
+        this.rows      = new ItemRow[size];
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /** Returns the row at display position {@code index}, creating it on first access. */
+    public ItemRow get(int index)
+    {
+        ItemRow row = rows[index];
+        if (row == null)
+        {
+            row = materialize(positions[index]);
+            rows[index] = row;
+        }
+        return row;
+    }
+
+    private ItemRow materialize(int pos)
+    {
+        int  id        = snapshot.ids()[pos];
+        long curPrice  = snapshot.currentPrices()[pos];
+        long snapPrice = snapshot.prices(window)[pos];
+        long volume    = snapshot.volumes(window)[pos];
+
+        double changePct = ((double) (curPrice - snapPrice) / snapPrice) * 100.0;
+        long   changeAbs = curPrice - snapPrice;
+
+        // Until the item dump lands, show placeholder names rather than nothing
+        FlippingMastermindsPlugin.ItemMeta im = meta != null ? meta.get(id) : null;
+        String name    = im != null ? im.name    : "Item " + id;
+        String iconUrl = im != null ? im.iconUrl : null;
+
+        long high   = snapshot.highs()[pos];
+        long low    = snapshot.lows()[pos];
+        long margin = snapshot.margins()[pos];
+
+        return new ItemRow(id, name, iconUrl, changePct, changeAbs, volume, snapPrice, curPrice,
+                snapshot.vwaps(window)[pos],
+                Analytics.volatility(snapshot.volatilities(window)[pos]),
+                margin != MarketSnapshot.NO_MARGIN ? margin : 0,
+                Analytics.roi(high, low),
+                snapshot.highTimes()[pos], snapshot.lowTimes()[pos]);
+    }
+}
@@ -0,0 +1,202 @@
+package com.flippingmasterminds;
+
+import java.util.Arrays;
+
+/**
+ * Every item of one window ordered by its change %, built once per data load.
+ *
+ * The ordering holds two segments, each already in display order:
+ * Underperformers (change < 0) from the biggest loss up, then Top Performers
+ * (change > 0) from the biggest gain down. Ties keep ascending item id.
+ * Switching the time range or performance mode is therefore a filtered walk
+ * of a ready ordering with no recomputation or sorting, and {@link #rankOf}
+ * lets a range-index query map its candidates back to display order.
+ *
+ * When only the current prices move, {@link #rerank} derives the new
+ * ordering from the old one by re-placing just the items whose price changed.
+ */
+public final class RankingIndex
+{
+    private final int[] order;        // snapshot positions, in display order per segment
+    private final int[] rank;         // snapshot position -> index in order, or -1
+    private final int   negativeEnd;  // order[0, negativeEnd) are the Underperformers
+
+    private RankingIndex(int[] order, int[] rank, int negativeEnd)
+    {
+        this.order       = order;
+        this.rank        = rank;
+        this.negativeEnd = negativeEnd;
+    }
+
+    /** Builds the ordering from aligned current and window price columns. */
+    static RankingIndex build(long[] current, long[] prices)
+    {
+        int n = current.length;
+        int[]  order = new int[n];
+        long[] keys  = new long[n];
+        int    neg   = 0;
+        int    pos   = n;
+
+        // Falling items fill from the front, rising items from the back; unchanged items are never shown
+        for (int i = 0; i < n; i++)
+        {
+            long curPrice  = current[i];
+            long snapPrice = prices[i];
+            if (curPrice <= 0 || snapPrice <= 0 || curPrice == snapPrice) continue;
+
+            if (curPrice < snapPrice)
+            {
+                order[neg] = i;
+                keys[neg]  = sortKey(curPrice, snapPrice);
+                neg++;
+            }
+            else
+            {
+                pos--;
+                order[pos] = i;
+                keys[pos]  = sortKey(curPrice, snapPrice);
+            }
+        }
+
+        PrimitiveSort.sort(keys, order, 0, neg);
+        PrimitiveSort.sort(keys, order, pos, n);
+
+        // Close the gap left by unchanged/unpriced items
+        int   size    = neg + (n - pos);
+        int[] compact = new int[size];
+        System.arraycopy(order, 0,   compact, 0,   neg);
+        System.arraycopy(order, pos, compact, neg, n - pos);
+
+        return new RankingIndex(compact, rankOf(compact, size, n), neg);
+    }
+
+    /**
+     * Derives the ordering for new current prices from {@code old}, which was
+     * built over the same items and window prices. Only the {@code count}
+     * positions listed in {@code changed} are re-keyed and sorted; everyone
+     * else keeps their relative order, so the cost is one merge pass plus
+     * sorting the changed items rather than a full sort.
+     */
+    static RankingIndex rerank(RankingIndex old, long[] current, long[] prices, int[] changed, int count)
+    {
+        int n = current.length;
+        boolean[] dirty = new boolean[n];
+        for (int c = 0; c < count; c++) dirty[changed[c]] = true;
+
+        // Re-key the changed items into their new segment
+        int[]  movedOrder = new int[count];
+        long[] movedKeys  = new long[count];
+        int    neg        = 0;
+        int    pos        = count;
+        for (int c = 0; c < count; c++)
+        {
+            int  i         = changed[c];
+            long curPrice  = current[i];
+            long snapPrice = prices[i];
+            if (curPrice <= 0 || snapPrice <= 0 || curPrice == snapPrice) continue;
+
+            if (curPrice < snapPrice)
+            {
+                movedOrder[neg] = i;
+                movedKeys[neg]  = sortKey(curPrice, snapPrice);
+                neg++;
+            }
+            else
+            {
+                pos--;
+                movedOrder[pos] = i;
+                movedKeys[pos]  = sortKey(curPrice, snapPrice);
+            }
+        }
+        PrimitiveSort.sort(movedKeys, movedOrder, 0, neg);
+        PrimitiveSort.sort(movedKeys, movedOrder, pos, count);
+
+        int[] order = new int[old.order.length + neg + (count - pos)];
+        int   size  = merge(old, 0, old.negativeEnd, dirty, current, prices,
+                movedOrder, movedKeys, 0, neg, order, 0);
+        int   negativeEnd = size;
+        size = merge(old, old.negativeEnd, old.order.length, dirty, current, prices,
+                movedOrder, movedKeys, pos, count, order, size);
+
+        return new RankingIndex(Arrays.copyOf(order, size), rankOf(order, size, n), negativeEnd);
+    }
+
+    /**
+     * Merges the clean entries of {@code old.order[from, to)} with the sorted
+     * {@code moved[mFrom, mTo)} into {@code out} at {@code at}; returns the new end.
+     */
+    private static int merge(RankingIndex old, int from, int to, boolean[] dirty, long[] current, long[] prices,
+                             int[] moved, long[] movedKeys, int mFrom, int mTo, int[] out, int at)
+    {
+        int i = from;
+        int m = mFrom;
+        while (true)
+        {
+            while (i < to && dirty[old.order[i]]) i++;
+            if (i >= to) break;
+
+            int  p = old.order[i];
+            long k = sortKey(current[p], prices[p]);
+            if (m < mTo && (movedKeys[m] < k || (movedKeys[m] == k && moved[m] < p)))
+            {
+                out[at++] = moved[m++];
+            }
+            else
+            {
+                out[at++] = p;
+                i++;
+            }
+        }
+        while (m < mTo) out[at++] = moved[m++];
+        return at;
+    }
+
+    /**
+     * Sort key within an item's segment: ascending change % for falling items
+     * (biggest loss first) and descending for rising ones (biggest gain first).
+     */
+    private static long sortKey(long curPrice, long snapPrice)
+    {
+        double changePct = ((double) (curPrice - snapPrice) / snapPrice) * 100.0;
+        return PrimitiveSort.sortableBits(changePct < 0.0 ? changePct : -changePct);
+    }
+
+    /** Inverse of {@code order[0, size)} over {@code n} snapshot positions. */
+    private static int[] rankOf(int[] order, int size, int n)
+    {
+        int[] rank = new int[n];
+        Arrays.fill(rank, -1);
+        for (int r = 0; r < size; r++) rank[order[r]] = r;
+        return rank;
+    }
+
+    /** Number of items with a non-zero change % in this window. */
+    public int size()
+    {
+        return order.length;
+    }
+
+    /** First index of the given performance segment in the ordering. */
+    int segmentStart(boolean topPerformers)
+    {
+        return topPerformers ? negativeEnd : 0;
+    }
+
+    /** End (exclusive) of the given performance segment in the ordering. */
+    int segmentEnd(boolean topPerformers)
+    {
+        return topPerformers ? order.length : negativeEnd;
+    }
+
+    /** Snapshot position at ordering index {@code i}. */
+    int positionAt(int i)
+    {
+        return order[i];
+    }
+
+    /** Ordering index of a snapshot position, or -1 if it is not ranked. */
+    int rankOf(int position)
+    {
+        return rank[position];
+    }
+}
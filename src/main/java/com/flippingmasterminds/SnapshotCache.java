@@ -0,0 +1,173 @@
+package com.flippingmasterminds;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+
+/**
+ * On-disk copies of parsed historical snapshot responses.
+ *
+ * The 1h and 24h endpoints are queried at timestamps rounded down to their
+ * bucket, and the data of a closed bucket never changes. Each parsed column
+ * is therefore stored once under a key made of the endpoint and that
+ * timestamp, and refreshes or restarts within the same bucket read it back
+ * instead of downloading and parsing it again. Buckets that are no longer
+ * requested are evicted with {@link #retainOnly}.
+ */
+@Slf4j
+public class SnapshotCache
+{
+    private static final int    MAGIC     = 0x464D4D53; // "FMMS"
+    private static final int    VERSION   = 4;
+    private static final String EXTENSION = ".bin";
+
+    // Which optional PriceColumn fields follow each record
+    private static final int HAS_TIMES        = 1;   // /latest: high, highTime, low, lowTime
+    private static final int HAS_SIDE_VOLUMES = 2;   // averages: high, highVolume, low, lowVolume
+    private static final int HAS_STATS        = 4;   // series: vwap, volatility
+
+    /** Key of the last /latest response, kept so a restart has a baseline to show before the network answers. */
+    public static final String LATEST_KEY = "latest";
+
+    private final File dir;
+
+    public SnapshotCache(File dir)
+    {
+        this.dir = dir;
+    }
+
+    /**
+     * Cache key of a bucket-aligned snapshot URL, e.g. {@code 1h-1700000000}
+     * for {@code .../osrs/1h?timestamp=1700000000}.
+     */
+    public static String keyOf(String url)
+    {
+        return url.substring(url.lastIndexOf('/') + 1).replace("?timestamp=", "-");
+    }
+
+    /** Returns the cached column for {@code key}, or {@code null} if there is no usable copy. */
+    public synchronized PriceColumn load(String key)
+    {
+        File file = fileFor(key);
+        if (!file.isFile()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            {
+                log.debug("Ignoring snapshot cache {} with unknown format", key);
+                return null;
+            }
+
+            int count = in.readInt();
+            int flags = in.readByte();
+            PriceColumn.Builder column = new PriceColumn.Builder();
+            for (int i = 0; i < count; i++)
+            {
+                int  id     = in.readInt();
+                long price  = in.readLong();
+                long volume = in.readLong();
+                if ((flags & HAS_TIMES) != 0)
+                    column.addLatest(id, in.readLong(), in.readInt(), in.readLong(), in.readInt());
+                else if ((flags & HAS_SIDE_VOLUMES) != 0)
+                    column.addAverages(id, price, in.readLong(), in.readInt(), in.readLong(), in.readInt());
+                else if ((flags & HAS_STATS) != 0)
+                    column.addStats(id, price, volume, in.readLong(), in.readInt());
+                else
+                    column.add(id, price, volume);
+            }
+            return column.build();
+        }
+        catch (IOException e)
+        {
+            log.debug("Could not read snapshot cache {}, it will be re-downloaded", key, e);
+            return null;
+        }
+    }
+
+    /** Stores {@code column} under {@code key}, via a temporary file so a crash never leaves a partial copy. */
+    public synchronized void save(String key, PriceColumn column)
+    {
+        File file = fileFor(key);
+        File tmp  = new File(dir, file.getName() + ".tmp");
+        try
+        {
+            Files.createDirectories(dir.toPath());
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                int flags = column.hasTimes()       ? HAS_TIMES
+                          : column.hasSideVolumes() ? HAS_SIDE_VOLUMES
+                          : column.hasStats()       ? HAS_STATS
+                          : 0;
+                out.writeInt(column.size());
+                out.writeByte(flags);
+                for (int i = 0; i < column.size(); i++)
+                {
+                    out.writeInt(column.ids[i]);
+                    out.writeLong(column.prices[i]);
+                    out.writeLong(column.volumes[i]);
+                    if (flags == HAS_TIMES)
+                    {
+                        out.writeLong(column.highs[i]);
+                        out.writeInt(column.highTimes[i]);
+                        out.writeLong(column.lows[i]);
+                        out.writeInt(column.lowTimes[i]);
+                    }
+                    else if (flags == HAS_SIDE_VOLUMES)
+                    {
+                        out.writeLong(column.highs[i]);
+                        out.writeInt(column.highVolumes[i]);
+                        out.writeLong(column.lows[i]);
+                        out.writeInt(column.lowVolumes[i]);
+                    }
+                    else if (flags == HAS_STATS)
+                    {
+                        out.writeLong(column.vwaps[i]);
+                        out.writeInt(column.volatilities[i]);
+                    }
+                }
+            }
+
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e)
+        {
+            log.warn("Could not write snapshot cache {}", key, e);
+            tmp.delete();
+        }
+    }
+
+    /** Deletes every cached bucket whose key is not in {@code keys}. */
+    public synchronized void retainOnly(Set<String> keys)
+    {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(EXTENSION));
+        if (files == null) return;
+
+        for (File f : files)
+        {
+            String key = f.getName().substring(0, f.getName().length() - EXTENSION.length());
+            if (!keys.contains(key) && !f.delete())
+            {
+                log.debug("Could not evict stale snapshot cache {}", key);
+            }
+        }
+    }
+
+    private File fileFor(String key)
+    {
+        return new File(dir, key + EXTENSION);
+    }
+}
@@ -0,0 +1,49 @@
+package com.flippingmasterminds;
+
+/**
+ * The column results are ordered by, offered by the Sort By dropdown.
+ *
+ * Whatever the sort, the Performance dropdown still picks the rising or
+ * falling items of the selected window; the metric only orders them.
+ */
+public enum SortMetric
+{
+    CHANGE("Change %", true, true),
+    VWAP_CHANGE("vs VWAP %", true, true),
+    VOLATILITY("Volatility", false, true),
+    MARGIN("Margin", false, false),
+    SPREAD("Spread %", false, false),
+    ROI("ROI after tax", false, false);
+
+    private final String  label;
+    private final boolean followsSegment;
+    private final boolean perWindow;
+
+    SortMetric(String label, boolean followsSegment, boolean perWindow)
+    {
+        this.label          = label;
+        this.followsSegment = followsSegment;
+        this.perWindow      = perWindow;
+    }
+
+    /**
+     * Whether Underperformers list this metric lowest first, like change %.
+     * Otherwise both segments list the highest value first.
+     */
+    boolean followsSegment()
+    {
+        return followsSegment;
+    }
+
+    /** Whether the value depends on the selected window rather than only on /latest. */
+    boolean perWindow()
+    {
+        return perWindow;
+    }
+
+    @Override
+    public String toString()
+    {
+        return label;
+    }
+}
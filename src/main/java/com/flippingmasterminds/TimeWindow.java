@@ -0,0 +1,150 @@
+package com.flippingmasterminds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A comparison window offered by the Time Range dropdown: the four built-in
+ * windows plus any the user lists in the plugin settings.
+ *
+ * Windows are interned by length, so "7d" is the same instance as
+ * {@link #WEEK}, and each gets a permanent {@link #index()} into the
+ * per-window columns of {@link MarketSnapshot}. Windows of up to 24 hours are
+ * computed locally from the rolling /5m series once it covers them; longer
+ * ones, and short ones while the series is still back-filling, come from a
+ * bucket-aligned 1h or 24h snapshot, read from the local
+ * {@link PriceHistoryStore} when it holds that bucket.
+ */
+public final class TimeWindow
+{
+    // Guarded by itself; declared before the built-ins, which register into it
+    private static final List<TimeWindow> REGISTRY = new ArrayList<>();
+
+    public static final TimeWindow DAY   = intern("Day",   86400);
+    public static final TimeWindow WEEK  = intern("Week",  604800);
+    public static final TimeWindow MONTH = intern("Month", 2629743);
+    public static final TimeWindow YEAR  = intern("Year",  31556926);
+
+    private static final List<TimeWindow> BUILT_INS =
+            Collections.unmodifiableList(Arrays.asList(DAY, WEEK, MONTH, YEAR));
+
+    private static final long MIN_SECONDS = FiveMinuteSeries.STEP;
+    private static final long MAX_SECONDS = YEAR.seconds;
+
+    private final String label;
+    private final long   seconds;
+    private final int    index;
+
+    private TimeWindow(String label, long seconds, int index)
+    {
+        this.label   = label;
+        this.seconds = seconds;
+        this.index   = index;
+    }
+
+    private static TimeWindow intern(String label, long seconds)
+    {
+        synchronized (REGISTRY)
+        {
+            for (TimeWindow w : REGISTRY)
+            {
+                if (w.seconds == seconds) return w;
+            }
+            TimeWindow w = new TimeWindow(label, seconds, REGISTRY.size());
+            REGISTRY.add(w);
+            return w;
+        }
+    }
+
+    /** Number of windows created so far; every {@link #index()} is below this. */
+    static int count()
+    {
+        synchronized (REGISTRY)
+        {
+            return REGISTRY.size();
+        }
+    }
+
+    /** Day, Week, Month and Year, in dropdown order. */
+    public static List<TimeWindow> builtIns()
+    {
+        return BUILT_INS;
+    }
+
+    /**
+     * The built-ins followed by the windows in {@code spec}, a comma separated
+     * list such as {@code "4h, 3d, 2w"} (units m, h, d, w). Entries that do
+     * not parse, fall outside 5 minutes to a year, or repeat an earlier
+     * window are skipped.
+     */
+    public static List<TimeWindow> withCustom(String spec)
+    {
+        List<TimeWindow> out = new ArrayList<>(BUILT_INS);
+        if (spec == null) return out;
+
+        for (String part : spec.split(","))
+        {
+            String entry = part.trim().toLowerCase();
+            if (entry.length() < 2) continue;
+
+            long unit;
+            switch (entry.charAt(entry.length() - 1))
+            {
+                case 'm': unit = 60;     break;
+                case 'h': unit = 3600;   break;
+                case 'd': unit = 86400;  break;
+                case 'w': unit = 604800; break;
+                default:  continue;
+            }
+
+            long amount;
+            try
+            {
+                amount = Long.parseLong(entry.substring(0, entry.length() - 1).trim());
+            }
+            catch (NumberFormatException e)
+            {
+                continue;
+            }
+
+            if (amount <= 0 || amount > MAX_SECONDS / unit) continue;
+            long seconds = amount * unit;
+            if (seconds < MIN_SECONDS) continue;
+
+            TimeWindow w = intern(amount + entry.substring(entry.length() - 1), seconds);
+            if (!out.contains(w)) out.add(w);
+        }
+        return out;
+    }
+
+    /** Permanent index of this window's columns in a {@link MarketSnapshot}. */
+    public int index()
+    {
+        return index;
+    }
+
+    public String getLabel()
+    {
+        return label;
+    }
+
+    /** How far back the window reaches. */
+    public long getSeconds()
+    {
+        return seconds;
+    }
+
+    /** Whether the window fits in the rolling /5m series rather than needing a snapshot. */
+    public boolean fromSeries()
+    {
+        return seconds <= FiveMinuteSeries.BUCKETS * FiveMinuteSeries.STEP;
+    }
+
+    @Override
+    public String toString()
+    {
+        return label;
+    }
+}
@@ -0,0 +1,173 @@
+package com.flippingmasterminds;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Token-streaming parser for the OSRS Wiki price endpoints.
+ *
+ * Walks the response with a {@link JsonReader} and hands each item's fields
+ * straight to a sink, so no intermediate JsonObject tree (one per item, ~4k
+ * per response) is ever built.
+ */
+public final class WikiPriceParser
+{
+    /** Value reported for a price/time field that is absent or null. */
+    static final long MISSING = -1L;
+
+    /** Receives one entry of the /latest endpoint. */
+    @FunctionalInterface
+    interface LatestSink
+    {
+        void accept(int id, long high, long highTime, long low, long lowTime);
+    }
+
+    /**
+     * Receives one entry of a /5m, /1h or /24h endpoint.
+     * Missing average prices are reported as {@link Double#NaN}, missing volumes as 0.
+     */
+    @FunctionalInterface
+    interface AverageSink
+    {
+        void accept(int id, double avgHigh, long highVolume, double avgLow, long lowVolume);
+    }
+
+    private WikiPriceParser() { }
+
+    /** Parses a /latest response: {@code {"data":{"<id>":{"high":..,"highTime":..,"low":..,"lowTime":..}}}}. */
+    static void parseLatest(Reader in, LatestSink sink) throws IOException
+    {
+        JsonReader reader = new JsonReader(in);
+        if (!enterData(reader)) return;
+
+        while (reader.hasNext())
+        {
+            int id = readItemId(reader);
+            if (id < 0) continue;
+
+            long high = MISSING, highTime = MISSING, low = MISSING, lowTime = MISSING;
+
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                switch (reader.nextName())
+                {
+                    case "high":     high     = readLong(reader);  break;
+                    case "highTime": highTime = readLong(reader);  break;
+                    case "low":      low      = readLong(reader);  break;
+                    case "lowTime":  lowTime  = readLong(reader);  break;
+                    default:         reader.skipValue();           break;
+                }
+            }
+            reader.endObject();
+
+            sink.accept(id, high, highTime, low, lowTime);
+        }
+    }
+
+    /**
+     * Parses a timestamped average endpoint:
+     * {@code {"data":{"<id>":{"avgHighPrice":..,"highPriceVolume":..,"avgLowPrice":..,"lowPriceVolume":..}}}}.
+     * Average prices are doubles because v2 allows up to two decimal places.
+     */
+    static void parseAverages(Reader in, AverageSink sink) throws IOException
+    {
+        JsonReader reader = new JsonReader(in);
+        if (!enterData(reader)) return;
+
+        while (reader.hasNext())
+        {
+            int id = readItemId(reader);
+            if (id < 0) continue;
+
+            double avgHigh = Double.NaN, avgLow = Double.NaN;
+            long   highVol = 0,          lowVol = 0;
+
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                switch (reader.nextName())
+                {
+                    case "avgHighPrice":    avgHigh = readDouble(reader);              break;
+                    case "avgLowPrice":     avgLow  = readDouble(reader);              break;
+                    case "highPriceVolume": highVol = Math.max(0, readLong(reader));   break;
+                    case "lowPriceVolume":  lowVol  = Math.max(0, readLong(reader));   break;
+                    default:                reader.skipValue();                        break;
+                }
+            }
+            reader.endObject();
+
+            sink.accept(id, avgHigh, highVol, avgLow, lowVol);
+        }
+    }
+
+    // ── Token helpers ─────────────────────────────────────────────────────────
+
+    /**
+     * Advances to the inside of the top-level "data" object, skipping any
+     * sibling fields such as "timestamp". Returns false if there is none.
+     */
+    private static boolean enterData(JsonReader reader) throws IOException
+    {
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            if ("data".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT)
+            {
+                reader.beginObject();
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    /**
+     * Reads the next item key. Non-numeric keys or non-object values are
+     * skipped and reported as -1, mirroring the old per-item try/catch.
+     */
+    private static int readItemId(JsonReader reader) throws IOException
+    {
+        String key = reader.nextName();
+        int id;
+        try
+        {
+            id = Integer.parseInt(key);
+        }
+        catch (NumberFormatException e)
+        {
+            id = -1;
+        }
+
+        if (id < 0 || reader.peek() != JsonToken.BEGIN_OBJECT)
+        {
+            reader.skipValue();
+            return -1;
+        }
+        return id;
+    }
+
+    private static long readLong(JsonReader reader) throws IOException
+    {
+        if (reader.peek() == JsonToken.NULL)
+        {
+            reader.nextNull();
+            return MISSING;
+        }
+        // nextDouble accepts both integral and decimal literals; GP values fit exactly
+        return Math.round(reader.nextDouble());
+    }
+
+    private static double readDouble(JsonReader reader) throws IOException
+    {
+        if (reader.peek() == JsonToken.NULL)
+        {
+            reader.nextNull();
+            return Double.NaN;
+        }
+        return reader.nextDouble();
+    }
+}
@@ -0,0 +1,173 @@
+package com.flippingmasterminds;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class FilterEngineTest
+{
+	private static final int TRIALS = 300;
+
+	private FilterEngine engine;
+
+	@Before
+	public void setUp()
+	{
+		engine = new FilterEngine(result -> { });
+	}
+
+	@After
+	public void tearDown()
+	{
+		engine.shutdown();
+	}
+
+	@Test
+	public void computeMatchesBruteForce()
+	{
+		Random random = new Random(7);
+		for (int trial = 0; trial < TRIALS; trial++)
+		{
+			// A narrow price range makes ties, unchanged items and zero margins common
+			int            range    = trial % 2 == 0 ? 20 : 1_000_000;
+			MarketSnapshot snapshot = randomSnapshot(random, 1 + random.nextInt(200), range);
+			Map<Integer, FlippingMastermindsPlugin.ItemMeta> meta = trial % 3 == 0 ? null : randomMeta(random, snapshot);
+
+			for (SortMetric sortBy : SortMetric.values())
+			{
+				for (boolean top : new boolean[]{ true, false })
+				{
+					// Alternate wide-open and narrow filters, so both the ordering walk and the slice visit run
+					boolean narrow   = random.nextBoolean();
+					long    minPrice = narrow ? randomPrice(random, range) : 1;
+					long    maxPrice = narrow ? minPrice + random.nextInt(range) : Long.MAX_VALUE;
+					long    minVol   = narrow ? random.nextInt(1_000) : 0;
+					long    minMrg   = narrow ? random.nextInt(range / 4 + 1) : MarketSnapshot.NO_MARGIN;
+
+					FilterEngine.Query query = new FilterEngine.Query(snapshot, meta, TimeWindow.DAY, top, sortBy,
+							minPrice, maxPrice, minVol, minMrg);
+					String label = "trial " + trial + " " + sortBy + (top ? " top" : " under");
+					assertArrayEquals(label, bruteForce(query), idsOf(engine.compute(query, 0)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void computeWithEmptySnapshotFindsNothing()
+	{
+		FilterEngine.Query query = new FilterEngine.Query(MarketSnapshot.EMPTY, null, TimeWindow.DAY, true,
+				SortMetric.CHANGE, 1, Long.MAX_VALUE, 0, MarketSnapshot.NO_MARGIN);
+		assertArrayEquals(new int[0], idsOf(engine.compute(query, 0)));
+	}
+
+	/** The display ids for {@code q}, from a plain scan and sort of every item. */
+	private static int[] bruteForce(FilterEngine.Query q)
+	{
+		MarketSnapshot s       = q.snapshot;
+		long[]         current = s.currentPrices();
+		long[]         prices  = s.prices(q.window);
+		double[]       metric  = q.sortBy == SortMetric.CHANGE ? null : Analytics.column(q.sortBy, s, q.window);
+
+		List<Integer> matches = new ArrayList<>();
+		for (int pos = 0; pos < s.size(); pos++)
+		{
+			long cur  = current[pos];
+			long snap = prices[pos];
+			if (cur <= 0 || snap <= 0 || cur == snap) continue;
+			if (q.topPerformers != cur > snap) continue;
+			if (metric != null && Double.isNaN(metric[pos])) continue;
+
+			if (cur < q.minPrice || cur > q.maxPrice) continue;
+			if (s.volumes(q.window)[pos] < q.minVolume) continue;
+			if (s.margins()[pos] < q.minMargin) continue;
+			if (q.meta != null && !q.meta.containsKey(s.ids()[pos])) continue;
+			matches.add(pos);
+		}
+
+		if (metric == null)
+		{
+			// Biggest move first within the segment, ties in ascending id
+			matches.sort((a, b) ->
+			{
+				int c = Double.compare(Math.abs(change(current[b], prices[b])), Math.abs(change(current[a], prices[a])));
+				return c != 0 ? c : Integer.compare(a, b);
+			});
+		}
+		else
+		{
+			// Highest value first, ties in ascending id; Underperformers reverse a segment-following metric
+			matches.sort((a, b) ->
+			{
+				int c = Double.compare(metric[b], metric[a]);
+				return c != 0 ? c : Integer.compare(a, b);
+			});
+			if (q.sortBy.followsSegment() && !q.topPerformers) Collections.reverse(matches);
+		}
+
+		int[] ids = new int[matches.size()];
+		for (int i = 0; i < ids.length; i++) ids[i] = s.ids()[matches.get(i)];
+		return ids;
+	}
+
+	private static double change(long cur, long snap)
+	{
+		return ((double) (cur - snap) / snap) * 100.0;
+	}
+
+	private static int[] idsOf(RankedResult result)
+	{
+		int[] ids = new int[result.size()];
+		for (int i = 0; i < ids.length; i++) ids[i] = result.get(i).id;
+		return ids;
+	}
+
+	private static MarketSnapshot randomSnapshot(Random random, int n, int range)
+	{
+		PriceColumn.Builder latest = new PriceColumn.Builder();
+		PriceColumn.Builder day    = new PriceColumn.Builder();
+		int id = 0;
+		for (int i = 0; i < n; i++)
+		{
+			id += 1 + random.nextInt(5);
+
+			// Some items lack one side, so their margin, spread and ROI are unknown
+			long high = random.nextInt(10) == 0 ? 0 : randomPrice(random, range);
+			long low  = random.nextInt(10) == 0 ? 0 : randomPrice(random, range);
+			if (high == 0 && low == 0) high = randomPrice(random, range);
+			latest.addLatest(id, high, 0, low, 0);
+
+			// Some items have no Day price, and some no statistics
+			if (random.nextInt(8) == 0) continue;
+			long vwap       = random.nextInt(6) == 0 ? 0 : randomPrice(random, range);
+			int  volatility = random.nextInt(6) == 0 ? 0 : random.nextInt(500);
+			day.addStats(id, randomPrice(random, range), random.nextInt(2_000), vwap, volatility);
+		}
+		return MarketSnapshot.EMPTY.withBaseline(latest.build()).withWindow(TimeWindow.DAY, day.build());
+	}
+
+	/** Item metadata for a random subset, as if the item dump lacked some ids. */
+	private static Map<Integer, FlippingMastermindsPlugin.ItemMeta> randomMeta(Random random, MarketSnapshot snapshot)
+	{
+		Map<Integer, FlippingMastermindsPlugin.ItemMeta> meta = new HashMap<>();
+		for (int id : snapshot.ids())
+		{
+			if (random.nextInt(5) != 0) meta.put(id, new FlippingMastermindsPlugin.ItemMeta(id, "Item " + id, null));
+		}
+		return meta;
+	}
+
+	private static long randomPrice(Random random, int range)
+	{
+		return 1 + random.nextInt(range);
+	}
+}
@@ -0,0 +1,58 @@
+package com.flippingmasterminds;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FiveMinuteSeriesTest
+{
+	private static final long STEP   = FiveMinuteSeries.STEP;
+	private static final long LATEST = 1_700_000_100L - 1_700_000_100L % STEP;
+
+	@Test
+	public void emptyBucketStaysMissingUntilThePublicationDelayPasses()
+	{
+		FiveMinuteSeries series = new FiveMinuteSeries();
+		PriceColumn      empty  = new PriceColumn.Builder().build();
+		long             closed = LATEST + STEP;
+
+		assertFalse(series.append(LATEST, empty, closed + 30));
+		assertEquals(LATEST, series.missing(LATEST)[1]);
+
+		assertTrue(series.append(LATEST, empty, closed + FiveMinuteSeries.PUBLICATION_DELAY));
+		assertEquals(FiveMinuteSeries.BUCKETS - 1, series.missing(LATEST).length);
+	}
+
+	@Test
+	public void bucketWithDataIsHeldAtOnce()
+	{
+		FiveMinuteSeries series = new FiveMinuteSeries();
+		assertTrue(series.append(LATEST, bucket(4151, 1_500_000, 3), LATEST + STEP + 1));
+		assertEquals(FiveMinuteSeries.BUCKETS - 1, series.missing(LATEST).length);
+		assertTrue(series.covers(LATEST, STEP));
+		assertFalse(series.covers(LATEST, 2 * STEP));
+	}
+
+	@Test
+	public void olderBucketDoesNotReplaceANewerOne()
+	{
+		FiveMinuteSeries series = new FiveMinuteSeries();
+		long newer = LATEST + FiveMinuteSeries.BUCKETS * STEP;   // same slot, one day later
+		long now   = newer + STEP + 1;
+		assertTrue(series.append(newer, bucket(4151, 1_600_000, 1), now));
+		assertFalse(series.append(LATEST, bucket(4151, 1_500_000, 1), now));
+
+		PriceColumn column = series.toColumn(newer, STEP);
+		assertArrayEquals(new long[]{ 1_600_000 }, column.prices);
+	}
+
+	private static PriceColumn bucket(int id, long price, long volume)
+	{
+		PriceColumn.Builder b = new PriceColumn.Builder();
+		b.add(id, price, volume);
+		return b.build();
+	}
+}
@@ -0,0 +1,119 @@
+package com.flippingmasterminds;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static com.flippingmasterminds.GeStates.limits;
+import static com.flippingmasterminds.GeStates.offer;
+import static com.flippingmasterminds.GeStates.slots;
+import static com.flippingmasterminds.GeStates.state;
+import static net.runelite.api.GrandExchangeOfferState.BUYING;
+import static net.runelite.api.GrandExchangeOfferState.SOLD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GeSpoolTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File    dir;
+	private GeSpool spool;
+
+	@Before
+	public void setUp()
+	{
+		dir   = new File(folder.getRoot(), "ge-spool");
+		spool = new GeSpool(dir);
+	}
+
+	@Test
+	public void savedStateRoundTrips()
+	{
+		GeState state = state(-42L, 7,
+				slots(offer(BUYING, 4151, 1_500_000, 2, 1), offer(SOLD, 11832, 20_000_000, 1, 1)),
+				limits(4151, 1, 1_700_000_000_000L, 560, 100, 1_700_000_100_000L));
+		spool.save(state, "Slot updated: 0");
+
+		List<GeSpool.Entry> entries = spool.loadAll();
+		assertEquals(1, entries.size());
+		GeSpool.Entry entry = entries.get(0);
+		assertEquals("Slot updated: 0", entry.reason);
+		assertEquals(-42L, entry.state.accountHash);
+		assertEquals(state.playerName, entry.state.playerName);
+		assertTrue(entry.state.sameAs(state));
+
+		// Versions only mean something within the session that captured them
+		assertEquals(-1, entry.state.slotVersion);
+		assertEquals(-1, entry.state.limitVersion);
+	}
+
+	@Test
+	public void stateWithoutPlayerNameRoundTrips()
+	{
+		GeState state = GeState.capture(5L, null, slots(offer(BUYING, 4151, 1_500_000, 2, 0)), limits(), 1, 1);
+		spool.save(state, "Logged in");
+
+		List<GeSpool.Entry> entries = spool.loadAll();
+		assertEquals(1, entries.size());
+		assertNull(entries.get(0).state.playerName);
+		assertTrue(entries.get(0).state.sameAs(state));
+	}
+
+	@Test
+	public void saveKeepsOneStatePerAccount()
+	{
+		spool.save(state(1, 1, slots(), limits()), "old");
+		spool.save(state(1, 2, slots(offer(BUYING, 4151, 1_500_000, 2, 0)), limits()), "new");
+		spool.save(state(2, 1, slots(), limits()), "other");
+
+		List<GeSpool.Entry> entries = spool.loadAll();
+		assertEquals(2, entries.size());
+		for (GeSpool.Entry entry : entries)
+		{
+			assertEquals(entry.state.accountHash == 1 ? "new" : "other", entry.reason);
+		}
+		assertFalse(new File(dir, "1.bin.tmp").exists());
+	}
+
+	@Test
+	public void deleteForgetsTheAccount()
+	{
+		spool.save(state(1, 1, slots(), limits()), "one");
+		spool.save(state(2, 1, slots(), limits()), "two");
+
+		spool.delete(1);
+		spool.delete(3);
+
+		List<GeSpool.Entry> entries = spool.loadAll();
+		assertEquals(1, entries.size());
+		assertEquals(2, entries.get(0).state.accountHash);
+	}
+
+	@Test
+	public void unreadableFilesAreDropped() throws Exception
+	{
+		spool.save(state(1, 1, slots(), limits()), "good");
+		File garbage = new File(dir, "abc.bin");
+		Files.write(garbage.toPath(), new byte[]{ 0x46, 0x4D, 0x4D, 0x51, 0, 0, 0, 9 });
+
+		List<GeSpool.Entry> entries = spool.loadAll();
+		assertEquals(1, entries.size());
+		assertEquals("good", entries.get(0).reason);
+		assertFalse(garbage.exists());
+	}
+
+	@Test
+	public void missingDirectoryHoldsNothing()
+	{
+		assertTrue(spool.loadAll().isEmpty());
+	}
+}
@@ -0,0 +1,57 @@
+package com.flippingmasterminds;
+
+import net.runelite.api.GrandExchangeOffer;
+import net.runelite.api.GrandExchangeOfferState;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** Builds GE states for the upload tests without a client. */
+final class GeStates
+{
+    private GeStates() { }
+
+    static GrandExchangeOffer offer(GrandExchangeOfferState state, int itemId, int price, int total, int sold)
+    {
+        return new GrandExchangeOffer()
+        {
+            @Override public int getQuantitySold()             { return sold; }
+            @Override public int getItemId()                   { return itemId; }
+            @Override public int getTotalQuantity()            { return total; }
+            @Override public int getPrice()                    { return price; }
+            @Override public int getSpent()                    { return sold * price; }
+            @Override public GrandExchangeOfferState getState() { return state; }
+        };
+    }
+
+    /** Eight slots, the given offers first and the rest empty. */
+    static GrandExchangeOffer[] slots(GrandExchangeOffer... offers)
+    {
+        GrandExchangeOffer[] slots = new GrandExchangeOffer[GeFingerprint.SLOTS];
+        for (int i = 0; i < slots.length; i++)
+        {
+            slots[i] = i < offers.length ? offers[i] : offer(GrandExchangeOfferState.EMPTY, 0, 0, 0, 0);
+        }
+        return slots;
+    }
+
+    /** Buy limits in {@link BuyLimitTracker#getAllTracked()} form, from (itemId, quantity, firstBuy) triples. */
+    static Map<Integer, Map<String, Object>> limits(long... triples)
+    {
+        Map<Integer, Map<String, Object>> tracked = new HashMap<>();
+        for (int i = 0; i + 2 < triples.length; i += 3)
+        {
+            Map<String, Object> record = new HashMap<>();
+            record.put("quantityBought",    (int) triples[i + 1]);
+            record.put("firstBuyTimestamp", triples[i + 2]);
+            tracked.put((int) triples[i], record);
+        }
+        return tracked;
+    }
+
+    static GeState state(long accountHash, long version, GrandExchangeOffer[] slots,
+                         Map<Integer, Map<String, Object>> limits)
+    {
+        return GeState.capture(accountHash, "Player " + accountHash, slots, limits, version, version);
+    }
+}
@@ -0,0 +1,216 @@
+package com.flippingmasterminds;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import net.runelite.api.GrandExchangeOffer;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static com.flippingmasterminds.GeStates.limits;
+import static com.flippingmasterminds.GeStates.offer;
+import static com.flippingmasterminds.GeStates.slots;
+import static com.flippingmasterminds.GeStates.state;
+import static net.runelite.api.GrandExchangeOfferState.BOUGHT;
+import static net.runelite.api.GrandExchangeOfferState.BUYING;
+import static net.runelite.api.GrandExchangeOfferState.SELLING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GeSyncProtocolTest
+{
+	private static final long      ACCOUNT = 0x1234_5678_9ABCL;
+	private static final MediaType JSON    = MediaType.get("application/json; charset=utf-8");
+
+	private final OkHttpClient http = new OkHttpClient();
+
+	private GeTestServer   server;
+	private GeSyncProtocol sync;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		server = new GeTestServer();
+		sync   = new GeSyncProtocol(new Gson());
+	}
+
+	@After
+	public void tearDown()
+	{
+		server.close();
+	}
+
+	@Test
+	public void unchangedStateIsSkipped() throws Exception
+	{
+		GrandExchangeOffer[] offers = slots(offer(BUYING, 4151, 1_500_000, 2, 1));
+		GeState first = state(ACCOUNT, 1, offers, limits(4151, 1, 1_000L));
+
+		GeSyncProtocol.Upload upload = sync.encode(first, "first", GeSyncMode.DELTA, 0);
+		assertTrue(upload.full);
+		post(upload);
+		assertEquals("full", body(server.take()).get("type").getAsString());
+
+		// Captured again with the same data, at later versions
+		GeState again = state(ACCOUNT, 2, offers, limits(4151, 1, 1_000L));
+		assertNull(sync.encode(again, "again", GeSyncMode.DELTA, 1_000));
+		assertNull(sync.encode(again, "again", GeSyncMode.FULL, 1_000));
+		assertTrue(sync.upToDate(ACCOUNT, 1, 1, GeSyncMode.DELTA, 1_000));
+		assertFalse(sync.upToDate(ACCOUNT, 3, 1, GeSyncMode.DELTA, 1_000));
+		assertEquals(1, server.count());
+	}
+
+	@Test
+	public void deltaCarriesOnlyChangedSlotsAndLimits() throws Exception
+	{
+		GeState base = state(ACCOUNT, 1,
+				slots(offer(BUYING, 4151, 1_500_000, 2, 0), offer(SELLING, 11832, 20_000_000, 1, 0)),
+				limits(4151, 1, 1_000L, 560, 100, 2_000L));
+		post(sync.encode(base, "base", GeSyncMode.DELTA, 0));
+		server.take();
+
+		// Slot 0 fills, slot 1 is untouched; one limit grows, one expires, one is new
+		GeState next = state(ACCOUNT, 2,
+				slots(offer(BOUGHT, 4151, 1_500_000, 2, 2), offer(SELLING, 11832, 20_000_000, 1, 0)),
+				limits(4151, 2, 1_000L, 1513, 50, 3_000L));
+		GeSyncProtocol.Upload upload = sync.encode(next, "next", GeSyncMode.DELTA, 1_000);
+		assertFalse(upload.full);
+		post(upload);
+
+		JsonObject delta = body(server.take());
+		assertEquals("delta", delta.get("type").getAsString());
+		assertEquals(2, delta.get("seq").getAsLong());
+		assertEquals(1, delta.get("baseSeq").getAsLong());
+
+		JsonArray offers = delta.getAsJsonArray("offers");
+		assertEquals(1, offers.size());
+		JsonObject slot = offers.get(0).getAsJsonObject();
+		assertEquals(0, slot.get("slot").getAsInt());
+		assertEquals("BOUGHT", slot.get("state").getAsString());
+		assertEquals(2, slot.get("quantitySold").getAsInt());
+
+		JsonArray limits = delta.getAsJsonArray("buyLimits");
+		assertEquals(2, limits.size());
+		// Ascending by item id
+		assertEquals(1513, limits.get(0).getAsJsonObject().get("itemId").getAsInt());
+		assertEquals(4151, limits.get(1).getAsJsonObject().get("itemId").getAsInt());
+		assertEquals(2, limits.get(1).getAsJsonObject().get("quantityBought").getAsInt());
+
+		JsonArray expired = delta.getAsJsonArray("expiredBuyLimits");
+		assertEquals(1, expired.size());
+		assertEquals(560, expired.get(0).getAsInt());
+	}
+
+	@Test
+	public void gzipDeltaDecodesToTheSameDocument() throws Exception
+	{
+		post(sync.encode(state(ACCOUNT, 1, slots(), limits()), "base", GeSyncMode.DELTA_GZIP, 0));
+		assertTrue(server.take().gzip);
+
+		GeSyncProtocol.Upload upload = sync.encode(
+				state(ACCOUNT, 2, slots(offer(BUYING, 4151, 1_500_000, 2, 0)), limits()),
+				"next", GeSyncMode.DELTA_GZIP, 1_000);
+		assertTrue(upload.gzip);
+		post(upload);
+
+		GeTestServer.Received received = server.take();
+		assertTrue(received.gzip);
+		JsonObject delta = body(received);
+		assertEquals("delta", delta.get("type").getAsString());
+		assertEquals(1, delta.getAsJsonArray("offers").size());
+	}
+
+	@Test
+	public void rejectedUploadForcesTheNextOneFull() throws Exception
+	{
+		post(sync.encode(state(ACCOUNT, 1, slots(), limits()), "base", GeSyncMode.DELTA, 0));
+		server.take();
+
+		GrandExchangeOffer[] changed = slots(offer(BUYING, 4151, 1_500_000, 2, 0));
+		server.respondWith(500);
+		GeSyncProtocol.Upload refused = sync.encode(state(ACCOUNT, 2, changed, limits()), "refused",
+				GeSyncMode.DELTA, 1_000);
+		assertFalse(refused.full);
+		assertEquals(500, post(refused));
+		server.take();
+
+		// The same state again is not skipped, and goes out whole
+		GeSyncProtocol.Upload retry = sync.encode(state(ACCOUNT, 3, changed, limits()), "retry",
+				GeSyncMode.DELTA, 2_000);
+		assertNotNull(retry);
+		assertTrue(retry.full);
+		post(retry);
+
+		JsonObject full = body(server.take());
+		assertEquals("full", full.get("type").getAsString());
+		assertEquals(3, full.get("seq").getAsLong());
+		assertEquals(8, full.getAsJsonArray("offers").size());
+		assertNull(full.get("baseSeq"));
+	}
+
+	@Test
+	public void resyncAfterLoginSendsAnUnchangedStateWhole() throws Exception
+	{
+		GrandExchangeOffer[] offers = slots(offer(BUYING, 4151, 1_500_000, 2, 0));
+		post(sync.encode(state(ACCOUNT, 1, offers, limits()), "base", GeSyncMode.DELTA, 0));
+		server.take();
+
+		sync.resync();
+		assertFalse(sync.upToDate(ACCOUNT, 1, 1, GeSyncMode.DELTA, 1_000));
+		GeSyncProtocol.Upload upload = sync.encode(state(ACCOUNT, 1, offers, limits()), "login",
+				GeSyncMode.DELTA, 1_000);
+		assertTrue(upload.full);
+	}
+
+	@Test
+	public void resyncAfterLoginSendsAnUnchangedStateInFullModeToo() throws Exception
+	{
+		GrandExchangeOffer[] offers = slots(offer(BUYING, 4151, 1_500_000, 2, 0));
+		post(sync.encode(state(ACCOUNT, 1, offers, limits()), "base", GeSyncMode.FULL, 0));
+		server.take();
+		assertNull(sync.encode(state(ACCOUNT, 1, offers, limits()), "tick", GeSyncMode.FULL, 1_000));
+
+		sync.resync();
+		assertFalse(sync.upToDate(ACCOUNT, 1, 1, GeSyncMode.FULL, 2_000));
+		GeSyncProtocol.Upload upload = sync.encode(state(ACCOUNT, 1, offers, limits()), "login",
+				GeSyncMode.FULL, 2_000);
+		assertTrue(upload.full);
+		assertNull(sync.encode(state(ACCOUNT, 1, offers, limits()), "tick", GeSyncMode.FULL, 2_500));
+
+		post(upload);
+		server.take();
+		assertNull(sync.encode(state(ACCOUNT, 1, offers, limits()), "tick", GeSyncMode.FULL, 3_000));
+	}
+
+	/** Posts {@code upload} as the queue would, and acknowledges or rejects it by the response. */
+	private int post(GeSyncProtocol.Upload upload) throws IOException
+	{
+		Request.Builder request = new Request.Builder()
+				.url(server.url())
+				.post(RequestBody.create(JSON, upload.body));
+		if (upload.gzip) request.addHeader("Content-Encoding", "gzip");
+
+		try (Response response = http.newCall(request.build()).execute())
+		{
+			if (response.isSuccessful()) sync.acknowledge(upload);
+			else                          sync.reject(upload);
+			return response.code();
+		}
+	}
+
+	private static JsonObject body(GeTestServer.Received received)
+	{
+		return new Gson().fromJson(received.body, JsonObject.class);
+	}
+}
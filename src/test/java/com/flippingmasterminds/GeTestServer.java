@@ -0,0 +1,144 @@
+package com.flippingmasterminds;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A local endpoint for GE upload tests. Every request is recorded with its
+ * body (un-gzipped) and answered with the next queued status code, or 200
+ * once none are queued. {@link #hold()} keeps responses back until
+ * {@link #release()}, so a test can act while an upload is in flight.
+ */
+final class GeTestServer implements AutoCloseable
+{
+    /** One recorded request. */
+    static final class Received
+    {
+        final String  body;
+        final boolean gzip;
+        final String  authorization;
+
+        Received(String body, boolean gzip, String authorization)
+        {
+            this.body          = body;
+            this.gzip          = gzip;
+            this.authorization = authorization;
+        }
+    }
+
+    private final HttpServer              server;
+    private final ExecutorService         threads  = Executors.newCachedThreadPool();
+    private final BlockingQueue<Received> received = new LinkedBlockingQueue<>();
+    private final Queue<Integer>          statuses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger           count    = new AtomicInteger();
+    private volatile CountDownLatch       gate     = new CountDownLatch(0);
+
+    GeTestServer() throws IOException
+    {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ge", this::handle);
+        server.setExecutor(threads);
+        server.start();
+    }
+
+    String url()
+    {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/ge";
+    }
+
+    /** Answers the next requests with {@code codes}, in order. */
+    void respondWith(int... codes)
+    {
+        for (int code : codes) statuses.add(code);
+    }
+
+    void hold()
+    {
+        gate = new CountDownLatch(1);
+    }
+
+    void release()
+    {
+        gate.countDown();
+    }
+
+    /** The next recorded request, waiting up to five seconds for it. */
+    Received take() throws InterruptedException
+    {
+        Received r = received.poll(5, TimeUnit.SECONDS);
+        if (r == null) throw new AssertionError("no request arrived");
+        return r;
+    }
+
+    /** The next recorded request if one arrives within {@code ms}, else {@code null}. */
+    Received poll(long ms) throws InterruptedException
+    {
+        return received.poll(ms, TimeUnit.MILLISECONDS);
+    }
+
+    /** Requests received so far. */
+    int count()
+    {
+        return count.get();
+    }
+
+    @Override
+    public void close()
+    {
+        release();
+        server.stop(0);
+        threads.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        byte[]  raw  = readAll(exchange.getRequestBody());
+        boolean gzip = "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+        String  body = new String(gzip ? readAll(new GZIPInputStream(new ByteArrayInputStream(raw))) : raw,
+                StandardCharsets.UTF_8);
+        received.add(new Received(body, gzip, exchange.getRequestHeaders().getFirst("Authorization")));
+        count.incrementAndGet();
+
+        try
+        {
+            gate.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        Integer code  = statuses.poll();
+        byte[]  reply = "{}".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(code != null ? code : 200, reply.length);
+        try (OutputStream out = exchange.getResponseBody())
+        {
+            out.write(reply);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException
+    {
+        try (InputStream is = in)
+        {
+            return is.readAllBytes();
+        }
+    }
+}
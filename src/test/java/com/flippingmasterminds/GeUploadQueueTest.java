@@ -0,0 +1,267 @@
+package com.flippingmasterminds;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BooleanSupplier;
+
+import static com.flippingmasterminds.GeStates.limits;
+import static com.flippingmasterminds.GeStates.offer;
+import static com.flippingmasterminds.GeStates.slots;
+import static com.flippingmasterminds.GeStates.state;
+import static net.runelite.api.GrandExchangeOfferState.BUYING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GeUploadQueueTest
+{
+	private static final long ACCOUNT = 0x1234_5678_9ABCL;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final Gson            gson    = new Gson();
+	private final GeUploadMetrics metrics = new GeUploadMetrics();
+
+	private volatile String token = "secret";
+
+	private GeTestServer             server;
+	private ScheduledExecutorService scheduler;
+	private File                     spoolDir;
+	private GeUploadQueue            queue;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		server    = new GeTestServer();
+		scheduler = Executors.newSingleThreadScheduledExecutor();
+		spoolDir  = folder.newFolder("ge-spool");
+		queue     = newQueue();
+	}
+
+	@After
+	public void tearDown()
+	{
+		queue.stop();
+		scheduler.shutdownNow();
+		server.close();
+	}
+
+	@Test
+	public void backoffDoublesUpToTheCapWithJitter()
+	{
+		for (int failures = 1; failures <= 40; failures++)
+		{
+			long ceil = Math.min(GeUploadQueue.BACKOFF_MAX_MS, GeUploadQueue.BACKOFF_BASE_MS << Math.min(failures - 1, 20));
+			for (int sample = 0; sample < 200; sample++)
+			{
+				long delay = GeUploadQueue.backoff(failures);
+				assertTrue("attempt " + failures + ": " + delay, delay >= ceil / 2 && delay <= ceil);
+			}
+		}
+		assertTrue(GeUploadQueue.backoff(1) <= GeUploadQueue.BACKOFF_BASE_MS);
+		assertTrue(GeUploadQueue.backoff(40) >= GeUploadQueue.BACKOFF_MAX_MS / 2);
+	}
+
+	@Test
+	public void onlyRetryableStatusesAreRetried()
+	{
+		assertTrue(GeUploadQueue.retryable(-1));
+		assertTrue(GeUploadQueue.retryable(408));
+		assertTrue(GeUploadQueue.retryable(429));
+		assertTrue(GeUploadQueue.retryable(500));
+		assertTrue(GeUploadQueue.retryable(503));
+		assertFalse(GeUploadQueue.retryable(400));
+		assertFalse(GeUploadQueue.retryable(401));
+		assertFalse(GeUploadQueue.retryable(403));
+		assertFalse(GeUploadQueue.retryable(404));
+	}
+
+	@Test
+	public void uploadCarriesTheTokenAndClearsTheSpool() throws Exception
+	{
+		submit(stateAt(1), "first");
+
+		GeTestServer.Received received = server.take();
+		assertEquals("Bearer secret", received.authorization);
+		assertEquals("first", body(received).get("reason").getAsString());
+		eventually(() -> spoolFiles() == 0);
+	}
+
+	@Test
+	public void newerStateReplacesTheQueuedOne() throws Exception
+	{
+		server.hold();
+		submit(stateAt(1), "A");
+		assertEquals("A", body(server.take()).get("reason").getAsString());
+
+		// A is in flight, so B waits in the lane and C replaces it
+		submit(stateAt(2), "B");
+		submit(stateAt(3), "C");
+		assertEquals(1, metrics.superseded.get());
+		server.release();
+
+		assertEquals("C", body(server.take()).get("reason").getAsString());
+		assertNull(server.poll(300));
+		assertEquals(2, server.count());
+	}
+
+	@Test
+	public void failedUploadIsRequeued() throws Exception
+	{
+		server.respondWith(500);
+		submit(stateAt(1), "A");
+		server.take();
+
+		// Retried after the first backoff, in full since the server never took it
+		JsonObject retry = body(server.take());
+		assertEquals("A", retry.get("reason").getAsString());
+		assertEquals("full", retry.get("type").getAsString());
+		assertEquals(1, metrics.failures.get());
+		eventually(() -> spoolFiles() == 0);
+	}
+
+	@Test
+	public void refusedUploadIsParkedUntilTheTokenChanges() throws Exception
+	{
+		server.respondWith(401);
+		submit(stateAt(1), "A");
+		server.take();
+
+		assertNull("a 401 is not retried", server.poll(1_500));
+		assertEquals(1, metrics.refused.get());
+		assertEquals(0, metrics.failures.get());
+		assertEquals("the state stays spooled", 1, spoolFiles());
+
+		token = "renewed";
+		queue.unparkAll();
+		GeTestServer.Received retry = server.take();
+		assertEquals("A", body(retry).get("reason").getAsString());
+		assertEquals("Bearer renewed", retry.authorization);
+	}
+
+	@Test
+	public void newerStateIsSentAfterARefusal() throws Exception
+	{
+		server.respondWith(403);
+		submit(stateAt(1), "A");
+		server.take();
+		eventually(() -> metrics.refused.get() == 1);
+
+		submit(stateAt(2), "B");
+		assertEquals("B", body(server.take()).get("reason").getAsString());
+	}
+
+	@Test
+	public void tokenBucketLimitsBursts() throws Exception
+	{
+		for (int i = 1; i <= GeUploadQueue.BURST; i++)
+		{
+			submit(stateAt(i), "burst " + i);
+			server.take();
+			eventually(() -> spoolFiles() == 0);
+		}
+
+		submit(stateAt(GeUploadQueue.BURST + 1), "over");
+		assertNull("sent before a token was earned", server.poll(500));
+		assertTrue(metrics.rateLimited.get() > 0);
+
+		// Sent once the bucket refills
+		GeTestServer.Received late = server.poll(GeUploadQueue.REFILL_MS + 2_000);
+		assertEquals("over", body(late).get("reason").getAsString());
+	}
+
+	@Test
+	public void spooledStateIsSentAfterRestart() throws Exception
+	{
+		// Without a token nothing is sent, so the state only reaches the spool
+		token = "";
+		submit(stateAt(1), "before restart");
+		queue.stop();
+		assertEquals(1, spoolFiles());
+		assertEquals(0, server.count());
+
+		token = "secret";
+		queue = newQueue();
+		queue.start();
+
+		JsonObject upload = body(server.take());
+		assertEquals("before restart", upload.get("reason").getAsString());
+		assertEquals("full", upload.get("type").getAsString());
+		eventually(() -> spoolFiles() == 0);
+	}
+
+	private GeUploadQueue newQueue()
+	{
+		FlippingMastermindsConfig config = new FlippingMastermindsConfig()
+		{
+			@Override
+			public String apiToken()
+			{
+				return token;
+			}
+
+			@Override
+			public GeSyncMode geSyncMode()
+			{
+				return GeSyncMode.DELTA;
+			}
+		};
+		return new GeUploadQueue(new OkHttpClient(), scheduler, new GeSyncProtocol(gson), new GeSpool(spoolDir),
+				config, server.url(), metrics);
+	}
+
+	/** A distinct state per version: the offer's fill moves with it. */
+	private static GeState stateAt(int version)
+	{
+		return state(ACCOUNT, version, slots(offer(BUYING, 4151, 1_500_000, 100, version)), limits());
+	}
+
+	private void submit(GeState state, String reason) throws Exception
+	{
+		onScheduler(() ->
+		{
+			queue.submit(state, reason);
+			return null;
+		});
+	}
+
+	private <T> T onScheduler(Callable<T> task) throws Exception
+	{
+		return scheduler.submit(task).get();
+	}
+
+	private int spoolFiles()
+	{
+		String[] names = spoolDir.list((d, name) -> name.endsWith(".bin"));
+		return names != null ? names.length : 0;
+	}
+
+	private JsonObject body(GeTestServer.Received received)
+	{
+		return gson.fromJson(received.body, JsonObject.class);
+	}
+
+	/** Waits up to five seconds for {@code condition}, which the queue reaches asynchronously. */
+	private static void eventually(BooleanSupplier condition) throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.getAsBoolean())
+		{
+			if (System.currentTimeMillis() > deadline) throw new AssertionError("condition not reached");
+			Thread.sleep(10);
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package com.flippingmasterminds;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class IconLoaderTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final OkHttpClient           http      = new OkHttpClient();
+	private final AtomicLong             clock     = new AtomicLong();
+	private final BlockingQueue<String>  requests  = new LinkedBlockingQueue<>();
+	private final BlockingQueue<Integer> loaded    = new LinkedBlockingQueue<>();
+	private final Set<Integer>           missing   = ConcurrentHashMap.newKeySet();
+	private final ExecutorService        threads   = Executors.newCachedThreadPool();
+	private volatile CountDownLatch      gate      = new CountDownLatch(0);
+
+	private HttpServer server;
+	private byte[]     png;
+	private IconLoader loader;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB), "png", out);
+		png = out.toByteArray();
+
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/icons/", this::handle);
+		server.setExecutor(threads);
+		server.start();
+	}
+
+	@After
+	public void tearDown()
+	{
+		if (loader != null) loader.shutdown();
+		gate.countDown();
+		server.stop(0);
+		threads.shutdownNow();
+	}
+
+	@Test
+	public void downloadedIconIsServedFromMemoryThenDisk() throws Exception
+	{
+		loader = newLoader(new File(folder.getRoot(), "icons"), 1);
+		loader.prefetch(rows(1));
+		assertEquals("/icons/1.png", take(requests));
+		assertEquals(1, (int) take(loaded));
+		assertNotNull(loader.getCached(1));
+
+		// Memory tier: nothing is queued again
+		loader.prefetch(rows(1));
+		assertNull(requests.poll(300, TimeUnit.MILLISECONDS));
+
+		// Disk tier: a fresh memory tier is filled without a download
+		loader.shutdown();
+		loader = newLoader(new File(folder.getRoot(), "icons"), 1);
+		loader.prefetch(rows(1));
+		assertEquals(1, (int) take(loaded));
+		assertNull(requests.poll(300, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void httpCacheAnswersRepeatDownloads() throws Exception
+	{
+		loader = newLoader(folder.newFolder("first-icons"), 1);
+		loader.prefetch(rows(1));
+		take(requests);
+		take(loaded);
+		loader.shutdown();
+
+		// Both icon tiers are empty, but the response is still fresh in the HTTP cache
+		loader = newLoader(folder.newFolder("second-icons"), 1);
+		loader.prefetch(rows(1));
+		assertEquals(1, (int) take(loaded));
+		assertNull(requests.poll(300, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void failedDownloadIsRetriedOnceTheTtlRunsOut() throws Exception
+	{
+		loader = newLoader(folder.newFolder("icons"), 1);
+		missing.add(5);
+		loader.prefetch(rows(5));
+		assertEquals("/icons/5.png", take(requests));
+
+		// With one thread, item 6 is only fetched once item 5 has been recorded as failed
+		loader.prefetch(rows(5, 6));
+		assertEquals("/icons/6.png", take(requests));
+		assertEquals(6, (int) take(loaded));
+
+		missing.remove(5);
+		clock.set(IconLoader.FAILURE_TTL_MS - 1);
+		loader.prefetch(rows(5));
+		assertNull("retried within the TTL", requests.poll(300, TimeUnit.MILLISECONDS));
+
+		clock.set(IconLoader.FAILURE_TTL_MS);
+		loader.prefetch(rows(5));
+		assertEquals("/icons/5.png", take(requests));
+		assertEquals(5, (int) take(loaded));
+	}
+
+	@Test
+	public void latestPrefetchOrderWins() throws Exception
+	{
+		loader = newLoader(folder.newFolder("icons"), 1);
+		gate = new CountDownLatch(1);
+		loader.prefetch(rows(10));
+		assertEquals("/icons/10.png", take(requests));
+
+		// While 10 downloads, the user scrolls twice; only the last page is loaded, visible rows first
+		loader.prefetch(rows(20, 21, 22, 23));
+		loader.prefetch(rows(23, 22));
+		gate.countDown();
+
+		assertEquals("/icons/23.png", take(requests));
+		assertEquals("/icons/22.png", take(requests));
+		assertNull(requests.poll(300, TimeUnit.MILLISECONDS));
+	}
+
+	private IconLoader newLoader(File iconDir, int threads)
+	{
+		IconLoader l = new IconLoader(http, new IconCache(iconDir, 4), new File(folder.getRoot(), "http-cache"),
+				threads, clock::get);
+		l.setOnLoaded(loaded::add);
+		return l;
+	}
+
+	private List<ItemRow> rows(int... ids)
+	{
+		ItemRow[] rows = new ItemRow[ids.length];
+		for (int i = 0; i < ids.length; i++)
+		{
+			String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/icons/" + ids[i] + ".png";
+			rows[i] = new ItemRow(ids[i], "Item " + ids[i], url, 0, 0, 0, 0, 0, 0, Double.NaN, 0, Double.NaN, 0, 0);
+		}
+		return Collections.unmodifiableList(Arrays.asList(rows));
+	}
+
+	private void handle(HttpExchange exchange) throws IOException
+	{
+		String path = exchange.getRequestURI().getPath();
+		requests.add(path);
+		try
+		{
+			gate.await(10, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+
+		int id = Integer.parseInt(path.substring("/icons/".length(), path.length() - ".png".length()));
+		if (missing.contains(id))
+		{
+			exchange.sendResponseHeaders(404, -1);
+			exchange.close();
+			return;
+		}
+		exchange.getResponseHeaders().add("Content-Type", "image/png");
+		exchange.getResponseHeaders().add("Cache-Control", "max-age=3600");
+		exchange.sendResponseHeaders(200, png.length);
+		try (OutputStream out = exchange.getResponseBody())
+		{
+			out.write(png);
+		}
+	}
+
+	private static <T> T take(BlockingQueue<T> queue) throws InterruptedException
+	{
+		T next = queue.poll(5, TimeUnit.SECONDS);
+		if (next == null) throw new AssertionError("timed out");
+		return next;
+	}
+}
@@ -0,0 +1,122 @@
+package com.flippingmasterminds;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The JsonObject-tree parsing the plugin used before {@link WikiPriceParser},
+ * kept as the reference the streaming parser is checked and benchmarked
+ * against.
+ */
+final class LegacyPriceParser
+{
+	private static final Gson GSON = new Gson();
+
+	private LegacyPriceParser() { }
+
+	/** The old /latest handling: mid of high and low for items that have both. */
+	static Map<Integer, Long> latestMids(Reader in)
+	{
+		Map<Integer, Long> map = new HashMap<>();
+		JsonObject data = GSON.fromJson(in, JsonObject.class).getAsJsonObject("data");
+		for (String key : data.keySet())
+		{
+			try
+			{
+				int id  = Integer.parseInt(key);
+				var obj = data.getAsJsonObject(key);
+				if (obj.has("high") && obj.has("low")
+						&& !obj.get("high").isJsonNull()
+						&& !obj.get("low").isJsonNull())
+				{
+					long high = obj.get("high").getAsLong();
+					long low  = obj.get("low").getAsLong();
+					map.put(id, (high + low) / 2);
+				}
+			}
+			catch (Exception ignored) {}
+		}
+		return map;
+	}
+
+	/** The old /1h and /24h handling: mid of both averages, and the summed volume when positive. */
+	static void averages(Reader in, Map<Integer, Long> prices, Map<Integer, Long> volume)
+	{
+		JsonObject data = GSON.fromJson(in, JsonObject.class).getAsJsonObject("data");
+		for (String key : data.keySet())
+		{
+			try
+			{
+				int id  = Integer.parseInt(key);
+				var obj = data.getAsJsonObject(key);
+				if (obj.has("avgHighPrice") && obj.has("avgLowPrice")
+						&& !obj.get("avgHighPrice").isJsonNull()
+						&& !obj.get("avgLowPrice").isJsonNull())
+				{
+					double high = obj.get("avgHighPrice").getAsDouble();
+					double low  = obj.get("avgLowPrice").getAsDouble();
+					prices.put(id, Math.round((high + low) / 2.0));
+				}
+
+				long vol = 0;
+				if (obj.has("highPriceVolume") && !obj.get("highPriceVolume").isJsonNull())
+					vol += obj.get("highPriceVolume").getAsLong();
+				if (obj.has("lowPriceVolume") && !obj.get("lowPriceVolume").isJsonNull())
+					vol += obj.get("lowPriceVolume").getAsLong();
+				if (vol > 0) volume.put(id, vol);
+			}
+			catch (Exception ignored) {}
+		}
+	}
+
+	/** Tree-based equivalent of {@link WikiPriceParser#parseLatest}, field for field. */
+	static void parseLatest(Reader in, WikiPriceParser.LatestSink sink)
+	{
+		JsonObject data = GSON.fromJson(in, JsonObject.class).getAsJsonObject("data");
+		for (String key : data.keySet())
+		{
+			try
+			{
+				int id  = Integer.parseInt(key);
+				var obj = data.getAsJsonObject(key);
+				sink.accept(id, longOf(obj, "high"), longOf(obj, "highTime"), longOf(obj, "low"), longOf(obj, "lowTime"));
+			}
+			catch (Exception ignored) {}
+		}
+	}
+
+	/** Tree-based equivalent of {@link WikiPriceParser#parseAverages}, field for field. */
+	static void parseAverages(Reader in, WikiPriceParser.AverageSink sink)
+	{
+		JsonObject data = GSON.fromJson(in, JsonObject.class).getAsJsonObject("data");
+		for (String key : data.keySet())
+		{
+			try
+			{
+				int id  = Integer.parseInt(key);
+				var obj = data.getAsJsonObject(key);
+				sink.accept(id,
+						doubleOf(obj, "avgHighPrice"), Math.max(0, longOf(obj, "highPriceVolume")),
+						doubleOf(obj, "avgLowPrice"),  Math.max(0, longOf(obj, "lowPriceVolume")));
+			}
+			catch (Exception ignored) {}
+		}
+	}
+
+	private static long longOf(JsonObject obj, String name)
+	{
+		JsonElement e = obj.get(name);
+		return e == null || e.isJsonNull() ? WikiPriceParser.MISSING : e.getAsLong();
+	}
+
+	private static double doubleOf(JsonObject obj, String name)
+	{
+		JsonElement e = obj.get(name);
+		return e == null || e.isJsonNull() ? Double.NaN : e.getAsDouble();
+	}
+}
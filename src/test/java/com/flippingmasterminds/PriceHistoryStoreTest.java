@@ -0,0 +1,132 @@
+package com.flippingmasterminds;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class PriceHistoryStoreTest
+{
+	private static final long NOW  = 1_700_000_000L;
+	private static final long HOUR = NOW - NOW % 3600 - 3600;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File              file;
+	private PriceHistoryStore store;
+
+	@Before
+	public void setUp()
+	{
+		file  = new File(folder.getRoot(), "price-history.bin");
+		store = new PriceHistoryStore(file);
+		store.open(NOW);
+	}
+
+	@After
+	public void tearDown()
+	{
+		store.close();
+	}
+
+	@Test
+	public void completeHourIsRolledUpLikeTheSeries()
+	{
+		for (int i = 0; i < 12; i++)
+		{
+			PriceColumn.Builder b = new PriceColumn.Builder();
+			// Item 2 does not trade in the first bucket
+			if (i > 0) b.addStats(2, 100 + i, 10, 100 + i, 0);
+			b.addStats(5, 50, i == 0 ? 30 : 0, i == 0 ? 60 : 0, 0);
+			store.append(HOUR + i * 300L, PriceHistoryStore.FIVE_MINUTES, b.build());
+		}
+		store.maintain(NOW);
+
+		PriceColumn hour = store.get(HOUR, PriceHistoryStore.HOUR);
+		assertNotNull(hour);
+		assertEquals(2, hour.size());
+		assertEquals(2, hour.ids[0]);
+		assertEquals(101, hour.prices[0]);
+		assertEquals(110, hour.volumes[0]);
+		assertEquals(106, hour.vwaps[0]);
+		assertEquals(5, hour.ids[1]);
+		assertEquals(50, hour.prices[1]);
+		assertEquals(30, hour.volumes[1]);
+		assertEquals(60, hour.vwaps[1]);
+	}
+
+	@Test
+	public void incompleteHourIsNotRolledUp()
+	{
+		for (int i = 0; i < 11; i++)
+		{
+			store.append(HOUR + i * 300L, PriceHistoryStore.FIVE_MINUTES, column(2, 100, 10));
+		}
+		store.maintain(NOW);
+
+		assertNull(store.get(HOUR, PriceHistoryStore.HOUR));
+	}
+
+	@Test
+	public void fetchedSnapshotIsNotReplacedByARollUp()
+	{
+		store.append(HOUR, PriceHistoryStore.HOUR, column(2, 777, 1));
+		for (int i = 0; i < 12; i++)
+		{
+			store.append(HOUR + i * 300L, PriceHistoryStore.FIVE_MINUTES, column(2, 100, 10));
+		}
+		store.maintain(NOW);
+
+		assertEquals(777, store.get(HOUR, PriceHistoryStore.HOUR).prices[0]);
+	}
+
+	@Test
+	public void eachStepIsKeptForItsOwnRetention()
+	{
+		long twoDaysAgo  = HOUR - 2 * 86400;
+		long nineDaysAgo = HOUR - 9 * 86400;
+		store.append(twoDaysAgo, PriceHistoryStore.FIVE_MINUTES, column(2, 100, 10));
+		store.append(twoDaysAgo, PriceHistoryStore.HOUR, column(2, 200, 10));
+		store.append(nineDaysAgo, PriceHistoryStore.HOUR, column(2, 300, 10));
+		store.append(nineDaysAgo - nineDaysAgo % 86400, PriceHistoryStore.DAY, column(2, 400, 10));
+		store.close();
+
+		store.open(NOW);
+		assertNull(store.get(twoDaysAgo, PriceHistoryStore.FIVE_MINUTES));
+		assertEquals(200, store.get(twoDaysAgo, PriceHistoryStore.HOUR).prices[0]);
+		assertNull(store.get(nineDaysAgo, PriceHistoryStore.HOUR));
+		assertEquals(400, store.get(nineDaysAgo - nineDaysAgo % 86400, PriceHistoryStore.DAY).prices[0]);
+	}
+
+	@Test
+	public void maintainCompactsOnceTheFileHasGrown()
+	{
+		long old = HOUR - 2 * 86400;
+		store.append(old, PriceHistoryStore.FIVE_MINUTES, column(2, 100, 10));
+		store.maintain(NOW);
+
+		// Enough records to pass the growth threshold
+		PriceColumn.Builder b = new PriceColumn.Builder();
+		for (int id = 0; id < 200_000; id++) b.add(id, 1, 1);
+		store.append(HOUR, PriceHistoryStore.HOUR, b.build());
+		store.maintain(NOW);
+
+		assertNull(store.get(old, PriceHistoryStore.FIVE_MINUTES));
+		assertEquals(200_000, store.get(HOUR, PriceHistoryStore.HOUR).size());
+	}
+
+	private static PriceColumn column(int id, long price, long volume)
+	{
+		PriceColumn.Builder b = new PriceColumn.Builder();
+		b.add(id, price, volume);
+		return b.build();
+	}
+}
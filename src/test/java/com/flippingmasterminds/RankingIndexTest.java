@@ -0,0 +1,96 @@
+package com.flippingmasterminds;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RankingIndexTest
+{
+	private static final int TRIALS = 2_000;
+
+	@Test
+	public void rerankMatchesFullBuild()
+	{
+		Random random = new Random(42);
+		for (int trial = 0; trial < TRIALS; trial++)
+		{
+			int n = 1 + random.nextInt(300);
+			// A narrow price range makes ties, unchanged items and segment switches common
+			int range = trial % 2 == 0 ? 20 : 1_000_000;
+
+			long[] prices  = new long[n];
+			long[] current = new long[n];
+			for (int i = 0; i < n; i++)
+			{
+				prices[i]  = randomPrice(random, range);
+				current[i] = randomPrice(random, range);
+			}
+			RankingIndex old = RankingIndex.build(current, prices);
+
+			// Move a random subset of current prices, as a /latest poll would
+			int[] changed = new int[n];
+			int   count   = 0;
+			long[] next   = current.clone();
+			for (int i = 0; i < n; i++)
+			{
+				if (random.nextInt(4) != 0) continue;
+				next[i] = randomPrice(random, range);
+				changed[count++] = i;
+			}
+
+			RankingIndex reranked = RankingIndex.rerank(old, next, prices, changed, count);
+			RankingIndex built    = RankingIndex.build(next, prices);
+			assertSame("trial " + trial, built, reranked, n);
+		}
+	}
+
+	@Test
+	public void rerankWithNothingChangedKeepsTheOrdering()
+	{
+		long[] prices  = {100, 200, 300, 400, 0};
+		long[] current = {110, 150, 300, 500, 10};
+		RankingIndex old = RankingIndex.build(current, prices);
+
+		assertSame("unchanged", old, RankingIndex.rerank(old, current, prices, new int[0], 0), prices.length);
+	}
+
+	@Test
+	public void segmentsAreInDisplayOrder()
+	{
+		long[] prices  = {100, 100, 100, 100, 100, 100};
+		long[] current = {90,  50,  120, 200, 100, 120};
+		RankingIndex index = RankingIndex.build(current, prices);
+
+		// Underperformers from the biggest loss up, Top Performers from the biggest gain down, ties by position
+		assertArrayEquals(new int[] {1, 0}, positions(index, false));
+		assertArrayEquals(new int[] {3, 2, 5}, positions(index, true));
+		assertEquals(-1, index.rankOf(4));
+	}
+
+	private static void assertSame(String message, RankingIndex expected, RankingIndex actual, int n)
+	{
+		assertArrayEquals(message + " underperformers", positions(expected, false), positions(actual, false));
+		assertArrayEquals(message + " top performers",  positions(expected, true),  positions(actual, true));
+		for (int p = 0; p < n; p++)
+		{
+			assertEquals(message + " rank of " + p, expected.rankOf(p), actual.rankOf(p));
+		}
+	}
+
+	private static int[] positions(RankingIndex index, boolean topPerformers)
+	{
+		int   from = index.segmentStart(topPerformers);
+		int[] out  = new int[index.segmentEnd(topPerformers) - from];
+		for (int i = 0; i < out.length; i++) out[i] = index.positionAt(from + i);
+		return out;
+	}
+
+	private static long randomPrice(Random random, int range)
+	{
+		// Some items have no price at all
+		return random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(range);
+	}
+}
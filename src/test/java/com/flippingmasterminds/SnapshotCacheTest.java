@@ -0,0 +1,158 @@
+package com.flippingmasterminds;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotCacheTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File          dir;
+	private SnapshotCache cache;
+
+	@Before
+	public void setUp()
+	{
+		dir   = new File(folder.getRoot(), "snapshots");
+		cache = new SnapshotCache(dir);
+	}
+
+	@Test
+	public void plainColumnRoundTrips()
+	{
+		PriceColumn.Builder b = new PriceColumn.Builder();
+		b.add(2, 150, 40);
+		b.add(7, 1_000_000_000_000L, 0);
+		b.add(11, 0, Long.MAX_VALUE);
+		assertRoundTrip("1h-1700000000", b.build());
+	}
+
+	@Test
+	public void latestColumnRoundTrips()
+	{
+		PriceColumn.Builder b = new PriceColumn.Builder();
+		b.addLatest(2, 160, 1_700_000_100, 140, 1_700_000_050);
+		b.addLatest(7, 0, 0, 90, 1_700_000_000);
+		b.addLatest(11, 2_147_483_648L, Integer.MAX_VALUE, 1, 1);
+		assertRoundTrip(SnapshotCache.LATEST_KEY, b.build());
+	}
+
+	@Test
+	public void averagesColumnRoundTrips()
+	{
+		PriceColumn.Builder b = new PriceColumn.Builder();
+		b.addAverages(2, 160, 30, 140, 10);
+		b.addAverages(7, 0, 0, 90, 5);
+		b.addAverages(11, 5_000_000_000L, Integer.MAX_VALUE, 4_000_000_000L, Integer.MAX_VALUE);
+		assertRoundTrip("24h-1699920000", b.build());
+	}
+
+	@Test
+	public void fractionalAveragesKeepTheBaselineMid()
+	{
+		PriceColumn.Builder b = new PriceColumn.Builder();
+		// Rounding each side first (101, 100) would give a mid of 101
+		b.addAverages(2, 100.6, 3, 99.6, 4);
+		PriceColumn column = b.build();
+
+		assertEquals(Math.round((100.6 + 99.6) / 2.0), column.prices[0]);
+		assertEquals(101, column.highs[0]);
+		assertEquals(100, column.lows[0]);
+		assertRoundTrip("1h-1699999200", column);
+	}
+
+	@Test
+	public void statsColumnRoundTrips()
+	{
+		PriceColumn.Builder b = new PriceColumn.Builder();
+		b.addStats(2, 150, 40, 148, 250);
+		b.addStats(7, 90, 0, 0, 0);
+		b.addStats(11, 3_000_000_000L, 12_345, 2_999_999_999L, Integer.MAX_VALUE);
+		assertRoundTrip("5m-1700000000", b.build());
+	}
+
+	@Test
+	public void emptyColumnRoundTrips()
+	{
+		assertRoundTrip("1h-1700003600", new PriceColumn.Builder().build());
+	}
+
+	@Test
+	public void missingOrUnknownFilesLoadAsNull() throws IOException
+	{
+		assertNull(cache.load("1h-1700000000"));
+
+		Files.createDirectories(dir.toPath());
+		Files.write(new File(dir, "1h-1700000000.bin").toPath(), new byte[]{ 1, 2, 3, 4, 0, 0, 0, 3 });
+		assertNull(cache.load("1h-1700000000"));
+
+		// A truncated copy is unusable too
+		PriceColumn.Builder b = new PriceColumn.Builder();
+		b.add(2, 150, 40);
+		cache.save("1h-1700003600", b.build());
+		File file = new File(dir, "1h-1700003600.bin");
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 4));
+		assertNull(cache.load("1h-1700003600"));
+	}
+
+	@Test
+	public void retainOnlyEvictsOtherKeys()
+	{
+		PriceColumn.Builder b = new PriceColumn.Builder();
+		b.add(2, 150, 40);
+		PriceColumn column = b.build();
+		cache.save("1h-1", column);
+		cache.save("1h-2", column);
+		cache.save(SnapshotCache.LATEST_KEY, column);
+
+		cache.retainOnly(new HashSet<>(Arrays.asList("1h-2", SnapshotCache.LATEST_KEY)));
+
+		assertFalse(new File(dir, "1h-1.bin").exists());
+		assertTrue(new File(dir, "1h-2.bin").exists());
+		assertTrue(new File(dir, SnapshotCache.LATEST_KEY + ".bin").exists());
+	}
+
+	@Test
+	public void keyOfUsesEndpointAndTimestamp()
+	{
+		assertEquals("1h-1700000000", SnapshotCache.keyOf("https://prices.runescape.wiki/api/v1/osrs/1h?timestamp=1700000000"));
+		assertEquals("24h-1699920000", SnapshotCache.keyOf("https://prices.runescape.wiki/api/v1/osrs/24h?timestamp=1699920000"));
+	}
+
+	/** Saves {@code column}, loads it back and checks every column, optional ones included, survived. */
+	private void assertRoundTrip(String key, PriceColumn column)
+	{
+		cache.save(key, column);
+		PriceColumn loaded = cache.load(key);
+
+		assertEquals(column.size(), loaded.size());
+		assertArrayEquals(column.ids,          loaded.ids);
+		assertArrayEquals(column.prices,       loaded.prices);
+		assertArrayEquals(column.volumes,      loaded.volumes);
+		assertArrayEquals(column.highs,        loaded.highs);
+		assertArrayEquals(column.lows,         loaded.lows);
+		assertArrayEquals(column.highTimes,    loaded.highTimes);
+		assertArrayEquals(column.lowTimes,     loaded.lowTimes);
+		assertArrayEquals(column.highVolumes,  loaded.highVolumes);
+		assertArrayEquals(column.lowVolumes,   loaded.lowVolumes);
+		assertArrayEquals(column.vwaps,        loaded.vwaps);
+		assertArrayEquals(column.volatilities, loaded.volatilities);
+		assertFalse(new File(dir, key + ".bin.tmp").exists());
+	}
+}
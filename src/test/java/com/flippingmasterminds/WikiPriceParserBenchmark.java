@@ -0,0 +1,104 @@
+package com.flippingmasterminds;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Times the streaming {@link WikiPriceParser} against the JsonObject-tree
+ * parsing it replaced ({@link LegacyPriceParser}) on synthetic responses the
+ * size of the live endpoints, and reports bytes allocated per parse.
+ *
+ * Run with {@code java -cp <test classpath> com.flippingmasterminds.WikiPriceParserBenchmark [items] [iterations]}.
+ */
+public class WikiPriceParserBenchmark
+{
+	private static long blackhole;
+
+	@FunctionalInterface
+	private interface Parse
+	{
+		void run(String json) throws IOException;
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		int items      = args.length > 0 ? Integer.parseInt(args[0]) : 4_000;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+		String latest   = latestJson(items);
+		String averages = averagesJson(items);
+		System.out.printf("%d items, /latest %d KB, /1h %d KB, %d iterations%n",
+				items, latest.length() / 1024, averages.length() / 1024, iterations);
+
+		run("latest   tree  ", latest, iterations,
+				json -> LegacyPriceParser.parseLatest(new StringReader(json), (id, h, ht, l, lt) -> blackhole += h ^ l));
+		run("latest   stream", latest, iterations,
+				json -> WikiPriceParser.parseLatest(new StringReader(json), (id, h, ht, l, lt) -> blackhole += h ^ l));
+		run("averages tree  ", averages, iterations,
+				json -> LegacyPriceParser.parseAverages(new StringReader(json), (id, h, hv, l, lv) -> blackhole += hv ^ lv));
+		run("averages stream", averages, iterations,
+				json -> WikiPriceParser.parseAverages(new StringReader(json), (id, h, hv, l, lv) -> blackhole += hv ^ lv));
+
+		System.out.println("(checksum " + blackhole + ")");
+	}
+
+	private static void run(String label, String json, int iterations, Parse parse) throws IOException
+	{
+		// Warm up so both paths are compiled before they are measured
+		for (int i = 0; i < iterations; i++) parse.run(json);
+
+		long bytesBefore = allocatedBytes();
+		long start       = System.nanoTime();
+		for (int i = 0; i < iterations; i++) parse.run(json);
+		long nanos       = System.nanoTime() - start;
+		long bytes       = allocatedBytes() - bytesBefore;
+
+		System.out.printf("%s %8.3f ms/parse %10d bytes/parse%n",
+				label, nanos / 1e6 / iterations, bytes < 0 ? -1 : bytes / iterations);
+	}
+
+	/** Bytes allocated so far by this thread, or -1 where the JVM cannot tell. */
+	private static long allocatedBytes()
+	{
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean)
+		{
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	private static String latestJson(int items)
+	{
+		Random        random = new Random(1);
+		StringBuilder sb     = new StringBuilder("{\"data\":{");
+		for (int i = 0; i < items; i++)
+		{
+			long low = 1 + random.nextInt(50_000_000);
+			if (i > 0) sb.append(',');
+			sb.append('"').append(i * 3 + 2).append("\":{\"high\":").append(low + random.nextInt(1000))
+					.append(",\"highTime\":").append(1_760_000_000 + random.nextInt(86_400))
+					.append(",\"low\":").append(low)
+					.append(",\"lowTime\":").append(1_760_000_000 + random.nextInt(86_400)).append('}');
+		}
+		return sb.append("}}").toString();
+	}
+
+	private static String averagesJson(int items)
+	{
+		Random        random = new Random(2);
+		StringBuilder sb     = new StringBuilder("{\"data\":{");
+		for (int i = 0; i < items; i++)
+		{
+			double low = 1 + random.nextInt(50_000_000) + random.nextInt(100) / 100.0;
+			if (i > 0) sb.append(',');
+			sb.append('"').append(i * 3 + 2).append("\":{\"avgHighPrice\":").append(low + random.nextInt(1000))
+					.append(",\"highPriceVolume\":").append(random.nextInt(100_000))
+					.append(",\"avgLowPrice\":").append(i % 7 == 0 ? "null" : Double.toString(low))
+					.append(",\"lowPriceVolume\":").append(random.nextInt(100_000)).append('}');
+		}
+		return sb.append("},\"timestamp\":1760000000}").toString();
+	}
+}
@@ -0,0 +1,105 @@
+package com.flippingmasterminds;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class WikiPriceParserTest
+{
+	@Test
+	public void latestFieldsMatchTreeParse() throws IOException
+	{
+		List<String> streamed = new ArrayList<>();
+		List<String> tree     = new ArrayList<>();
+		try (Reader in = fixture("latest.json"))
+		{
+			WikiPriceParser.parseLatest(in, (id, h, ht, l, lt) -> streamed.add(id + ":" + h + "/" + ht + "/" + l + "/" + lt));
+		}
+		try (Reader in = fixture("latest.json"))
+		{
+			LegacyPriceParser.parseLatest(in, (id, h, ht, l, lt) -> tree.add(id + ":" + h + "/" + ht + "/" + l + "/" + lt));
+		}
+
+		assertFalse(streamed.isEmpty());
+		assertEquals(tree, streamed);
+	}
+
+	@Test
+	public void averageFieldsMatchTreeParse() throws IOException
+	{
+		List<String> streamed = new ArrayList<>();
+		List<String> tree     = new ArrayList<>();
+		try (Reader in = fixture("averages.json"))
+		{
+			WikiPriceParser.parseAverages(in, (id, h, hv, l, lv) -> streamed.add(id + ":" + h + "/" + hv + "/" + l + "/" + lv));
+		}
+		try (Reader in = fixture("averages.json"))
+		{
+			LegacyPriceParser.parseAverages(in, (id, h, hv, l, lv) -> tree.add(id + ":" + h + "/" + hv + "/" + l + "/" + lv));
+		}
+
+		assertFalse(streamed.isEmpty());
+		assertEquals(tree, streamed);
+	}
+
+	@Test
+	public void latestMidsMatchOldOutput() throws IOException
+	{
+		Map<Integer, Long> expected;
+		try (Reader in = fixture("latest.json"))
+		{
+			expected = LegacyPriceParser.latestMids(in);
+		}
+
+		Map<Integer, Long> actual = new HashMap<>();
+		try (Reader in = fixture("latest.json"))
+		{
+			WikiPriceParser.parseLatest(in, (id, high, highTime, low, lowTime) ->
+			{
+				if (high != WikiPriceParser.MISSING && low != WikiPriceParser.MISSING) actual.put(id, (high + low) / 2);
+			});
+		}
+
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void averagesMatchOldOutput() throws IOException
+	{
+		Map<Integer, Long> expectedPrices = new HashMap<>();
+		Map<Integer, Long> expectedVolume = new HashMap<>();
+		try (Reader in = fixture("averages.json"))
+		{
+			LegacyPriceParser.averages(in, expectedPrices, expectedVolume);
+		}
+
+		Map<Integer, Long> prices = new HashMap<>();
+		Map<Integer, Long> volume = new HashMap<>();
+		try (Reader in = fixture("averages.json"))
+		{
+			WikiPriceParser.parseAverages(in, (id, avgHigh, highVolume, avgLow, lowVolume) ->
+			{
+				if (!Double.isNaN(avgHigh) && !Double.isNaN(avgLow)) prices.put(id, Math.round((avgHigh + avgLow) / 2.0));
+				if (highVolume + lowVolume > 0) volume.put(id, highVolume + lowVolume);
+			});
+		}
+
+		assertEquals(expectedPrices, prices);
+		assertEquals(expectedVolume, volume);
+	}
+
+	static Reader fixture(String name)
+	{
+		return new InputStreamReader(WikiPriceParserTest.class.getResourceAsStream(name), StandardCharsets.UTF_8);
+	}
+}